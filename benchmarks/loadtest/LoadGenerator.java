@@ -0,0 +1,90 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// carga em laço fechado: N clientes simultâneos, cada um dispara a próxima requisição ao receber a anterior.
+// "{i}" na URL vira um contador, para que cada requisição seja um cache miss.
+// uso: java LoadGenerator.java <url> <concorrência> <segundos> [aquecimentoSegundos]
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        long seconds = Long.parseLong(args[2]);
+        long warmupSeconds = args.length > 3 ? Long.parseLong(args[3]) : 5;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        AtomicLong counter = new AtomicLong();
+        run(client, url, concurrency, warmupSeconds, counter);
+        Result result = run(client, url, concurrency, seconds, counter);
+
+        long[] latencies = result.latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(latencies);
+        System.out.printf("url=%s concurrency=%d duration=%ds%n", url, concurrency, seconds);
+        System.out.printf("requests=%d ok=%d errors=%d throughput=%.1f req/s%n",
+                latencies.length + result.failures.get(), latencies.length - result.errors.get(),
+                result.errors.get() + result.failures.get(), latencies.length / (double) seconds);
+        System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0);
+    }
+
+    private static Result run(HttpClient client, String url, int concurrency, long seconds, AtomicLong counter)
+            throws Exception {
+        Result result = new Result();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            workers[i] = loop(client, url, deadline, counter, result);
+        }
+        CompletableFuture.allOf(workers).get();
+        return result;
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, String url, long deadline, AtomicLong counter,
+            Result result) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url.replace("{i}", Long.toString(counter.incrementAndGet()))))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        result.failures.incrementAndGet();
+                    } else {
+                        result.latencies.add(System.nanoTime() - start);
+                        if (response.statusCode() != 200) {
+                            result.errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, url, deadline, counter, result));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static final class Result {
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+    }
+}
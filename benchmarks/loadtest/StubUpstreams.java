@@ -0,0 +1,128 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+// GitHub (GraphQL e REST), WakaTime e Last.fm (com capas) simulados, com latência fixa, para o teste de carga.
+// uso: java StubUpstreams.java <porta> <latênciaMs>
+public class StubUpstreams {
+
+    private static final String USER_STATS = """
+            {"data":{"user":{"name":"Load Test","login":"load","pullRequests":{"totalCount":42},\
+            "issues":{"totalCount":17},"repositoriesContributedTo":{"totalCount":9},\
+            "followers":{"totalCount":120},"repositories":{"nodes":[{"stargazers":{"totalCount":310}},\
+            {"stargazers":{"totalCount":45}},{"stargazers":{"totalCount":3}}]}}}}""";
+
+    private static final String TOTAL_COMMITS = "{\"total_count\": 1834}";
+
+    private static final String ALL_TIME = "{\"data\":{\"text\":\"1,204 hrs 12 mins\",\"total_seconds\":4334320}}";
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        long latencyMs = args.length > 1 ? Long.parseLong(args[1]) : 200;
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 4096);
+        // uma thread por chamada em espera, como um upstream lento de verdade
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/graphql", exchange -> reply(exchange, latencyMs, USER_STATS));
+        server.createContext("/search/commits", exchange -> reply(exchange, latencyMs, TOTAL_COMMITS));
+        server.createContext("/api/v1/users/", exchange -> reply(exchange, latencyMs, ALL_TIME));
+        String images = "http://127.0.0.1:" + port + "/img/";
+        server.createContext("/2.0/", exchange -> reply(exchange, latencyMs, lastFm(exchange, images)));
+        byte[] cover = cover();
+        server.createContext("/img/", exchange -> reply(exchange, latencyMs, "image/jpeg", cover));
+        server.start();
+        System.out.println("Upstreams simulados em http://127.0.0.1:" + port + " (latência " + latencyMs + " ms)");
+    }
+
+    // capas com o nome do usuário na URL: cada card baixa e reduz imagens novas
+    private static String lastFm(HttpExchange exchange, String images) {
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        String user = query.getOrDefault("user", "artist");
+        String method = query.getOrDefault("method", "");
+        return switch (method) {
+            case "user.getrecenttracks" -> "{\"recenttracks\":{\"track\":[{\"name\":\"Teardrop\","
+                    + "\"artist\":{\"#text\":\"Massive Attack\"},\"album\":{\"#text\":\"Mezzanine\"},"
+                    + "\"image\":" + image(images + user + "-track.jpg") + ",\"@attr\":{\"nowplaying\":\"true\"}}]}}";
+            case "track.getInfo" -> "{\"track\":{\"userplaycount\":\"87\",\"toptags\":{\"tag\":[{\"name\":\"trip-hop\"}]}}}";
+            case "user.gettopartists" -> "{\"topartists\":{\"artist\":["
+                    + item("Portishead", null, images + user + "-a1.jpg", 410) + ","
+                    + item("Björk", null, images + user + "-a2.jpg", 233) + ","
+                    + item("Radiohead", null, images + user + "-a3.jpg", 198) + "]}}";
+            case "user.gettopalbums" -> "{\"topalbums\":{\"album\":["
+                    + item("Dummy", "Portishead", images + user + "-b1.jpg", 150) + ","
+                    + item("Homogenic", "Björk", images + user + "-b2.jpg", 97) + ","
+                    + item("OK Computer", "Radiohead", images + user + "-b3.jpg", 64) + "]}}";
+            default -> "{}";
+        };
+    }
+
+    private static String item(String name, String artist, String imageUrl, int playcount) {
+        return "{\"name\":\"" + name + "\","
+                + (artist != null ? "\"artist\":{\"#text\":\"" + artist + "\"}," : "")
+                + "\"image\":" + image(imageUrl) + ",\"playcount\":\"" + playcount + "\"}";
+    }
+
+    private static String image(String url) {
+        return "[{\"#text\":\"" + url + "\",\"size\":\"medium\"},{\"#text\":\"" + url + "\",\"size\":\"large\"},"
+                + "{\"#text\":\"" + url + "\",\"size\":\"extralarge\"}]";
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+
+    // 300x300, como o "extralarge" do Last.fm
+    private static byte[] cover() throws IOException {
+        BufferedImage image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(random.nextInt(300), random.nextInt(300), 30, 30);
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    private static void reply(HttpExchange exchange, long latencyMs, String json) throws IOException {
+        reply(exchange, latencyMs, "application/json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void reply(HttpExchange exchange, long latencyMs, String contentType, byte[] body)
+            throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
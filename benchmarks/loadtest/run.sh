@@ -0,0 +1,116 @@
+#!/usr/bin/env bash
+# Teste de carga com upstreams simulados. Cada requisição usa um usuário diferente (cache miss), então o tempo
+# é dominado pela espera nos upstreams e, no /music, pela redução das capas.
+#
+# modos:
+#   netty     Reactor Netty (padrão), render no event loop
+#   servlet   Tomcat + servlet async (-Pservlet)
+#   platform  Java 21, render e imagens no boundedElastic (platform threads)
+#   virtual   Java 21, render e imagens em virtual threads (spring.threads.virtual.enabled)
+#
+# uso: benchmarks/loadtest/run.sh
+#      MODES="platform virtual" ENDPOINTS="stats music" JAVA21_HOME=/caminho/jdk-21 benchmarks/loadtest/run.sh
+# variáveis: LATENCY_MS, CONCURRENCY, DURATION, MODES, ENDPOINTS, JAVA21_HOME
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+LOADTEST_DIR=benchmarks/loadtest
+WORK=${WORK:-${TMPDIR:-/tmp}/stats-loadtest}
+LATENCY_MS=${LATENCY_MS:-200}
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-30}
+MODES=${MODES:-"netty servlet"}
+ENDPOINTS=${ENDPOINTS:-"stats"}
+STUB_PORT=9090
+APP_PORT=8090
+
+mkdir -p "$WORK"
+
+java_home() {
+    case $1 in
+        platform|virtual) echo "${JAVA21_HOME:?JAVA21_HOME precisa apontar para um JDK 21}" ;;
+        *) echo "${JAVA_HOME:-$(dirname "$(dirname "$(readlink -f "$(command -v java)")")")}" ;;
+    esac
+}
+
+profile() {
+    case $1 in
+        servlet) echo "-Pservlet" ;;
+        platform|virtual) echo "-Pjava21" ;;
+    esac
+}
+
+mode_args() {
+    case $1 in
+        platform) echo "--cards.render.offload=true" ;;
+        virtual) echo "--spring.threads.virtual.enabled=true --cards.render.offload=true" ;;
+    esac
+}
+
+endpoint_url() {
+    case $1 in
+        stats) echo "http://127.0.0.1:$APP_PORT/api/stats?username=user{i}" ;;
+        music) echo "http://127.0.0.1:$APP_PORT/api/music?user=user{i}" ;;
+    esac
+}
+
+for mode in $MODES; do
+    # clean: o repackage não reconstrói um jar já empacotado com outras dependências
+    JAVA_HOME=$(java_home "$mode") mvn -B -q -DskipTests $(profile "$mode") clean package
+    cp target/github-stats-api-*.jar "$WORK/$mode.jar"
+done
+
+java "$LOADTEST_DIR/StubUpstreams.java" "$STUB_PORT" "$LATENCY_MS" > "$WORK/stub.log" 2>&1 &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null || true' EXIT
+
+for mode in $MODES; do
+    for endpoint in $ENDPOINTS; do
+        # capas de artistas em arquivo temporário, zerado a cada rodada: nenhuma começa com cache quente
+        rm -f "$WORK/$mode-$endpoint-artist-images.tsv"
+        # pools de saída folgados: o gargalo medido é o modelo de threads do servidor, não o cliente
+        WAKATIME_API_KEY=loadtest "$(java_home "$mode")/bin/java" -Xmx512m -jar "$WORK/$mode.jar" \
+            --server.port=$APP_PORT \
+            --github.token=loadtest \
+            --lastfm.api-key=loadtest \
+            --lastfm.artist-images.file="$WORK/$mode-$endpoint-artist-images.tsv" \
+            --cache.snapshot.enabled=false \
+            --lastfm.call-timeout-ms=10000 \
+            --lastfm.image-timeout-ms=10000 \
+            --upstream.clients.github-graphql.base-url=http://127.0.0.1:$STUB_PORT/graphql \
+            --upstream.clients.github-rest.base-url=http://127.0.0.1:$STUB_PORT \
+            --upstream.clients.wakatime.base-url=http://127.0.0.1:$STUB_PORT/api/v1 \
+            --upstream.clients.lastfm.base-url=http://127.0.0.1:$STUB_PORT/2.0/ \
+            --upstream.clients.github-graphql.max-connections=2000 \
+            --upstream.clients.github-rest.max-connections=2000 \
+            --upstream.clients.wakatime.max-connections=2000 \
+            --upstream.clients.lastfm.max-connections=2000 \
+            --upstream.clients.images.max-connections=2000 \
+            --upstream.clients.github-graphql.pending-acquire-max-count=-1 \
+            --upstream.clients.github-rest.pending-acquire-max-count=-1 \
+            --upstream.clients.wakatime.pending-acquire-max-count=-1 \
+            --upstream.clients.lastfm.pending-acquire-max-count=-1 \
+            --upstream.clients.images.pending-acquire-max-count=-1 \
+            --upstream.clients.github-graphql.max-concurrent-calls=2000 \
+            --upstream.clients.github-rest.max-concurrent-calls=2000 \
+            --upstream.clients.wakatime.max-concurrent-calls=2000 \
+            --upstream.clients.lastfm.max-concurrent-calls=2000 \
+            --upstream.clients.images.max-concurrent-calls=2000 \
+            $(mode_args "$mode") \
+            > "$WORK/$mode-$endpoint.log" 2>&1 &
+        APP_PID=$!
+
+        until curl -sf "http://127.0.0.1:$APP_PORT/actuator/health" > /dev/null; do
+            sleep 1
+        done
+
+        echo "== $mode /$endpoint =="
+        java "$LOADTEST_DIR/LoadGenerator.java" "$(endpoint_url "$endpoint")" "$CONCURRENCY" "$DURATION" 10 \
+            | tee "$WORK/$mode-$endpoint.txt"
+        grep -E '^(jvm_threads_live_threads|jvm_threads_peak_threads|process_cpu_usage)' \
+            <(curl -s "http://127.0.0.1:$APP_PORT/actuator/prometheus") | tee -a "$WORK/$mode-$endpoint.txt" || true
+
+        kill $APP_PID
+        wait $APP_PID 2>/dev/null || true
+    done
+done
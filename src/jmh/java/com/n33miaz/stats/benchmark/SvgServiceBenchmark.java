@@ -0,0 +1,132 @@
+package com.n33miaz.stats.benchmark;
+
+import com.n33miaz.stats.dto.ContributionCalendar;
+import com.n33miaz.stats.dto.GithubResponse;
+import com.n33miaz.stats.dto.StreakStatsDto;
+import com.n33miaz.stats.dto.WakaTimeSummaryResponse;
+import com.n33miaz.stats.service.GithubService;
+import com.n33miaz.stats.service.LastFmService;
+import com.n33miaz.stats.service.SvgService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// throughput + alocação (-prof gc) dos renderizadores com dados próximos aos de produção
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SvgServiceBenchmark {
+
+    private SvgService svgService;
+
+    private Map<String, String> colors;
+    private GithubResponse.Repository repository;
+    private GithubService.StatsData stats;
+    private StreakStatsDto streak;
+    private ContributionCalendar calendar;
+    private WakaTimeSummaryResponse waka;
+    private LastFmService.MusicDashboardData music;
+
+    @Setup
+    public void setup() {
+        svgService = new SvgService();
+        Random random = new Random(7);
+
+        colors = Map.of(
+                "title_color", "762075",
+                "icon_color", "ff79c6",
+                "text_color", "c9d1d9",
+                "bg_color", "0d1117",
+                "border_color", "30363d");
+
+        repository = new GithubResponse.Repository(
+                "github-stats-api",
+                "API para gerar métricas e cards SVG dinâmicos para perfil do GitHub, com WakaTime e Last.fm",
+                1234, 56,
+                new GithubResponse.PrimaryLanguage("Java", "#b07219"),
+                new GithubResponse.ObjectData(new GithubResponse.History(321)));
+
+        stats = new GithubService.StatsData(1873, 42, 310, 57, new GithubService.Rank("A+", 8.7));
+
+        streak = new StreakStatsDto(1210, 23, "Feb 15 - Mar 09", 61, "Jun 01 - Jul 31");
+
+        // calendário de um ano terminando hoje, como o da API
+        LocalDate today = LocalDate.now();
+        int[] counts = new int[371];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = random.nextInt(10) < 7 ? random.nextInt(12) : 0;
+        }
+        calendar = new ContributionCalendar(today.minusDays(counts.length - 1).toEpochDay(), counts);
+
+        List<WakaTimeSummaryResponse.Summary> summaries = new ArrayList<>();
+        for (int i = 7; i >= 0; i--) {
+            double seconds = random.nextInt(6 * 3600);
+            summaries.add(new WakaTimeSummaryResponse.Summary(
+                    new WakaTimeSummaryResponse.GrandTotal(seconds, (int) (seconds / 3600) + " hrs"),
+                    new WakaTimeSummaryResponse.Range(today.minusDays(i).toString())));
+        }
+        waka = new WakaTimeSummaryResponse(summaries);
+
+        // capas "extra-large" (~300px) embutidas em base64, como hoje
+        music = new LastFmService.MusicDashboardData(
+                new LastFmService.TrackInfo("Paranoid Android", "Radiohead", "OK Computer",
+                        fakeJpeg(random), true, "Now Playing", 87),
+                List.of(
+                        new LastFmService.SimpleItem("Radiohead", "412 plays", fakeJpeg(random)),
+                        new LastFmService.SimpleItem("Björk", "233 plays", fakeJpeg(random)),
+                        new LastFmService.SimpleItem("Massive Attack", "198 plays", "")),
+                List.of(
+                        new LastFmService.SimpleItem("OK Computer", "Radiohead", fakeJpeg(random), "120 plays"),
+                        new LastFmService.SimpleItem("Homogenic", "Björk", fakeJpeg(random), "98 plays"),
+                        new LastFmService.SimpleItem("Mezzanine", "Massive Attack", fakeJpeg(random), "75 plays")));
+    }
+
+    @Benchmark
+    public String generateStatsCard() {
+        return svgService.generateStatsCard(stats, colors, false, "1,234 hrs 56 mins");
+    }
+
+    @Benchmark
+    public String generateStreakCard() {
+        return svgService.generateStreakCard(streak, colors, false, "3 hrs 12 mins");
+    }
+
+    @Benchmark
+    public String generateRepoCard() {
+        return svgService.generateRepoCard(repository, colors, false, true);
+    }
+
+    @Benchmark
+    public String generateContributionGraph() {
+        return svgService.generateContributionGraph(calendar, waka, colors, false, "n33miaz");
+    }
+
+    @Benchmark
+    public String generateMusicDashboard() {
+        return svgService.generateMusicDashboard(music, colors, false, "7 Days");
+    }
+
+    private static String fakeJpeg(Random random) {
+        byte[] bytes = new byte[24 * 1024];
+        random.nextBytes(bytes);
+        return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,58 @@
+package com.n33miaz.stats.benchmark;
+
+import com.n33miaz.stats.service.SvgTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// String.format vs template pré-compilado sobre o mesmo texto (badge de tempo do card de stats)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SvgTemplateBenchmark {
+
+    private static final String FORMAT = """
+            <g transform="translate(%d, %d)">
+                <rect x="-60" y="0" width="120" height="22" rx="11" fill="#%s" fill-opacity="0.15"/>
+                <text x="0" y="15" text-anchor="middle" font-size="11" font-weight="600" fill="#%s">%s</text>
+                <circle r="40" style="stroke-dashoffset: %f" />
+            </g>
+            """;
+
+    private static final SvgTemplate TEMPLATE = SvgTemplate.compile(FORMAT);
+
+    private final int x = 225;
+    private final int y = 160;
+    private final String color = "39d353";
+    private final String text = "1,234 hrs 56 mins";
+    private final double offset = 21.75;
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(Locale.US, FORMAT, x, y, color, color, text, offset);
+    }
+
+    @Benchmark
+    public String template() {
+        return TEMPLATE.writer()
+                .num(x)
+                .num(y)
+                .str(color)
+                .str(color)
+                .str(text)
+                .dec(offset)
+                .render();
+    }
+}
@@ -1,6 +1,7 @@
 package com.n33miaz.stats.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.n33miaz.stats.service.GithubTokenPool;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -8,14 +9,16 @@ import org.springframework.web.reactive.function.client.WebClient;
 @Configuration
 public class GithubConfig {
 
-    @Value("${github.token}")
-    private String githubToken;
+    @Autowired
+    private UpstreamClientFactory upstreamClientFactory;
+
+    @Autowired
+    private GithubTokenPool githubTokenPool;
 
     @Bean
     public WebClient githubWebClient() {
-        return WebClient.builder()
-                .baseUrl("https://api.github.com/graphql")
-                .defaultHeader("Authorization", "Bearer " + githubToken)
+        return upstreamClientFactory.builder("github-graphql")
+                .filter(githubTokenPool)
                 .defaultHeader("Content-Type", "application/json")
                 .build();
     }
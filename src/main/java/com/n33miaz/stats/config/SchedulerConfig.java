@@ -0,0 +1,35 @@
+package com.n33miaz.stats.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    // trabalho bloqueante (ImageIO, disco) fora do event loop do Netty.
+    // com spring.threads.virtual.enabled=true no Java 21+: uma virtual thread por tarefa, sem teto de pool
+    @Bean
+    public Scheduler blockingScheduler(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("blocking-");
+            executor.setVirtualThreads(true);
+            return Schedulers.fromExecutor(executor);
+        }
+        return Schedulers.boundedElastic();
+    }
+
+    // onde o SvgService roda: no próprio event loop (padrão) ou no scheduler bloqueante
+    @Bean
+    public Scheduler renderScheduler(
+            @Value("${cards.render.offload:false}") boolean offload,
+            @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        return offload ? blockingScheduler : Schedulers.immediate();
+    }
+}
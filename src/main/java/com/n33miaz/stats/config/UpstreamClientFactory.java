@@ -0,0 +1,72 @@
+package com.n33miaz.stats.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// todo WebClient de upstream sai daqui: um pool nomeado por upstream, com fila de espera,
+// prazos e despejo de conexões ociosas. as métricas dos pools vão para o registry global
+// (reactor.netty.connection.provider.*, tag name = upstream)
+public class UpstreamClientFactory {
+
+    private final UpstreamProperties properties;
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public UpstreamClientFactory(UpstreamProperties properties) {
+        this.properties = properties;
+    }
+
+    public WebClient.Builder builder(String name) {
+        UpstreamProperties.Client client = properties.client(name);
+
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(name, client)))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(client.getMaxInMemorySize()));
+        if (client.getBaseUrl() != null && !client.getBaseUrl().isBlank()) {
+            builder.baseUrl(client.getBaseUrl());
+        }
+        return builder;
+    }
+
+    public void dispose() {
+        providers.values().forEach(ConnectionProvider::dispose);
+        providers.clear();
+    }
+
+    private HttpClient httpClient(String name, UpstreamProperties.Client client) {
+        HttpClient httpClient = HttpClient.create(providers.computeIfAbsent(name, n -> connectionProvider(n, client)))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getResponseTimeout())
+                // leitura do corpo; o handler sai quando a conexão volta ao pool
+                .doOnResponse((response, connection) -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(client.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)))
+                .compress(true);
+
+        // HTTP/2 só com TLS (h2 via ALPN); upstreams http e o cliente genérico de imagens ficam no 1.1
+        String baseUrl = client.getBaseUrl();
+        if (client.isHttp2() && baseUrl != null && baseUrl.startsWith("https://")) {
+            httpClient = httpClient.secure().protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+
+    private static ConnectionProvider connectionProvider(String name, UpstreamProperties.Client client) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .maxLifeTime(client.getMaxLifeTime())
+                .evictInBackground(client.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+}
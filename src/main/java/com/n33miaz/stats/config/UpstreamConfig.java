@@ -0,0 +1,15 @@
+package com.n33miaz.stats.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public UpstreamClientFactory upstreamClientFactory(UpstreamProperties properties) {
+        return new UpstreamClientFactory(properties);
+    }
+}
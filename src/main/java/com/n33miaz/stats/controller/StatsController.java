@@ -1,21 +1,39 @@
 package com.n33miaz.stats.controller;
 
+import com.n33miaz.stats.service.CardCacheService;
+import com.n33miaz.stats.service.CardCacheService.CachedCard;
+import com.n33miaz.stats.service.CardCacheService.CardKey;
+import com.n33miaz.stats.service.CardCacheService.Rendered;
+import com.n33miaz.stats.service.CardDeadlines;
+import com.n33miaz.stats.service.CardMetrics;
+import com.n33miaz.stats.service.CardType;
+import com.n33miaz.stats.service.ContributionSnapshotService;
 import com.n33miaz.stats.service.GithubService;
 import com.n33miaz.stats.service.SvgService;
 import com.n33miaz.stats.service.WakaTimeService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -34,14 +52,30 @@ public class StatsController {
     @Autowired
     private com.n33miaz.stats.service.LastFmService lastFmService;
 
+    @Autowired
+    private CardCacheService cardCacheService;
+
+    @Autowired
+    private CardMetrics cardMetrics;
+
+    @Autowired
+    private CardDeadlines cardDeadlines;
+
+    @Autowired
+    private ContributionSnapshotService contributionSnapshotService;
+
+    @Autowired
+    @Qualifier("renderScheduler")
+    private Scheduler renderScheduler;
+
     @GetMapping("/test")
-    public ResponseEntity<String> getTestSvg(@RequestParam(defaultValue = "Hello n33miaz") String text) {
+    public ResponseEntity<byte[]> getTestSvg(@RequestParam(defaultValue = "Hello n33miaz") String text) {
         String svg = svgService.generateTestSvg(text);
         return createSvgResponse(svg, 0);
     }
 
     @GetMapping("/pin")
-    public Mono<ResponseEntity<String>> getRepoPin(
+    public Mono<ResponseEntity<byte[]>> getRepoPin(
             @RequestParam String username,
             @RequestParam String repo,
             @RequestParam(required = false) String title_color,
@@ -50,7 +84,8 @@ public class StatsController {
             @RequestParam(required = false) String bg_color,
             @RequestParam(required = false) String border_color,
             @RequestParam(defaultValue = "false") boolean hide_border,
-            @RequestParam(defaultValue = "true") boolean show_description) {
+            @RequestParam(defaultValue = "true") boolean show_description,
+            @RequestHeader HttpHeaders requestHeaders) {
         Map<String, String> colors = new HashMap<>();
         if (title_color != null)
             colors.put("title_color", title_color);
@@ -63,20 +98,19 @@ public class StatsController {
         if (border_color != null)
             colors.put("border_color", border_color);
 
-        return githubService.fetchRepository(username, repo)
-                .map(repository -> {
-                    String svg = svgService.generateRepoCard(repository, colors, hide_border, show_description);
-                    return createSvgResponse(svg, 1800);
-                })
-                .onErrorResume(e -> {
-                    e.printStackTrace();
-                    String errorSvg = svgService.generateTestSvg("Error: " + e.getMessage());
-                    return Mono.just(new ResponseEntity<>(errorSvg, HttpStatus.BAD_REQUEST));
-                });
+        CardKey key = CardKey.of(CardType.PIN, username, repo, colors, hide_border, show_description);
+
+        return cardCacheService.getCard(key, () -> cardCacheService
+                .getData(CardType.PIN, dataId(username, repo), () -> githubService.fetchRepository(username, repo))
+                .publishOn(renderScheduler)
+                .map(repository -> cardMetrics.render(CardType.PIN,
+                        () -> svgService.generateRepoCard(repository, colors, hide_border, show_description))))
+                .map(card -> createSvgResponse(card, CardType.PIN, requestHeaders))
+                .onErrorResume(e -> Mono.fromSupplier(() -> createErrorResponse(key, e, "Error: ")));
     }
 
     @GetMapping("/stats")
-    public Mono<ResponseEntity<String>> getGithubStats(
+    public Mono<ResponseEntity<byte[]>> getGithubStats(
             @RequestParam String username,
             @RequestParam(required = false) String waka_user,
             @RequestParam(required = false) String title_color,
@@ -84,7 +118,9 @@ public class StatsController {
             @RequestParam(required = false) String text_color,
             @RequestParam(required = false) String bg_color,
             @RequestParam(required = false) String border_color,
-            @RequestParam(defaultValue = "false") boolean hide_border) {
+            @RequestParam(defaultValue = "false") boolean hide_border,
+            @RequestParam(required = false) Long deadline_ms,
+            @RequestHeader HttpHeaders requestHeaders) {
 
         Map<String, String> colors = new HashMap<>();
         if (title_color != null)
@@ -100,34 +136,41 @@ public class StatsController {
 
         String finalWakaUser = waka_user != null ? waka_user : username;
 
-        // CORREÇÃO AQUI: Tratamento de nulos seguro
-        return Mono.zip(
-                githubService.fetchUserStats(username),
-                wakaTimeService.getAllTimeStats(finalWakaUser)
-                        .map(res -> {
-                            // Verifica se data ou text são nulos antes de retornar
-                            if (res.data() != null && res.data().text() != null) {
-                                return res.data().text();
-                            }
-                            return ""; // Retorna string vazia em vez de null
-                        })
-                        .defaultIfEmpty("") // Se o serviço retornar Mono.empty() (erro de API)
-        ).map(tuple -> {
-            var stats = tuple.getT1();
-            var timeText = tuple.getT2();
-
-            // Passamos o timeText para o gerador de SVG
-            String svg = svgService.generateStatsCard(stats, colors, hide_border, timeText);
-            return createSvgResponse(svg, 3600);
-        }).onErrorResume(e -> {
-            e.printStackTrace();
-            String errorSvg = svgService.generateTestSvg("Stats Error: " + e.getMessage());
-            return Mono.just(new ResponseEntity<>(errorSvg, HttpStatus.BAD_REQUEST));
-        });
+        CardKey key = CardKey.of(CardType.STATS, username, finalWakaUser, colors, hide_border, false);
+        Duration deadline = cardDeadlines.resolve(CardType.STATS, deadline_ms);
+
+        // GitHub é o card; o tempo do WakaTime só entra se chegar no prazo. falha do WakaTime (Mono.empty())
+        // não passa pelo cache de dados: o card sai parcial, sem o trecho
+        return cardCacheService.getCompositeCard(key, () -> Mono.zip(
+                cardCacheService.getData(CardType.STATS, dataId(username, "github"),
+                        () -> githubService.fetchUserStats(username)),
+                cardDeadlines.optional(cardCacheService.getData(CardType.STATS, dataId(finalWakaUser, "wakatime"),
+                        // CORREÇÃO AQUI: Tratamento de nulos seguro
+                        () -> wakaTimeService.getAllTimeStats(finalWakaUser)
+                                .map(res -> {
+                                    // Verifica se data ou text são nulos antes de retornar
+                                    if (res.data() != null && res.data().text() != null) {
+                                        return res.data().text();
+                                    }
+                                    return ""; // Retorna string vazia em vez de null
+                                })),
+                        deadline))
+                .publishOn(renderScheduler)
+                .map(tuple -> {
+                    var stats = tuple.getT1();
+                    var timeText = tuple.getT2().orElse("");
+
+                    // Passamos o timeText para o gerador de SVG
+                    String svg = cardMetrics.render(CardType.STATS,
+                            () -> svgService.generateStatsCard(stats, colors, hide_border, timeText));
+                    return rendered(CardType.STATS, svg, tuple.getT2().isEmpty());
+                }))
+                .map(card -> createSvgResponse(card, CardType.STATS, requestHeaders))
+                .onErrorResume(e -> Mono.fromSupplier(() -> createErrorResponse(key, e, "Stats Error: ")));
     }
 
     @GetMapping("/streak")
-    public Mono<ResponseEntity<String>> getStreakStats(
+    public Mono<ResponseEntity<byte[]>> getStreakStats(
             @RequestParam String username,
             @RequestParam(required = false) String waka_user,
             @RequestParam(required = false) String title_color,
@@ -142,7 +185,9 @@ public class StatsController {
             @RequestParam(required = false) String sideLabels,
             @RequestParam(required = false) String dates,
             @RequestParam(required = false) String timeCoded,
-            @RequestParam(defaultValue = "false") boolean hide_border) {
+            @RequestParam(defaultValue = "false") boolean hide_border,
+            @RequestParam(required = false) Long deadline_ms,
+            @RequestHeader HttpHeaders requestHeaders) {
 
         Map<String, String> colors = new HashMap<>();
 
@@ -187,37 +232,42 @@ public class StatsController {
         if (timeCoded != null && !timeCoded.isEmpty()) {
             wakaTimeMono = Mono.just(timeCoded);
         } else {
-            wakaTimeMono = wakaTimeService.getDailySummaries(finalWakaUser, 0)
-                    .map(response -> {
-                        if (response != null && response.data() != null && !response.data().isEmpty()) {
-                            var todayData = response.data().get(response.data().size() - 1);
-                            if (todayData.grandTotal() != null) {
-                                return todayData.grandTotal().text();
+            wakaTimeMono = cardCacheService.getData(CardType.STREAK, dataId(finalWakaUser, "wakatime"),
+                    () -> wakaTimeService.getDailySummaries(finalWakaUser, 0)
+                        .map(response -> {
+                            if (response != null && response.data() != null && !response.data().isEmpty()) {
+                                var todayData = response.data().get(response.data().size() - 1);
+                                if (todayData.grandTotal() != null) {
+                                    return todayData.grandTotal().text();
+                                }
                             }
-                        }
-                        return "";
-                    })
-                    .defaultIfEmpty("")
-                    .onErrorResume(e -> Mono.just(""));
+                            return "";
+                        }));
         }
 
-        return Mono.zip(githubService.fetchStreakStats(username), wakaTimeMono)
+        String variant = finalWakaUser + "|" + (timeCoded != null ? timeCoded : "");
+        CardKey key = CardKey.of(CardType.STREAK, username, variant, colors, hide_border, false);
+        Duration deadline = cardDeadlines.resolve(CardType.STREAK, deadline_ms);
+
+        return cardCacheService.getCompositeCard(key, () -> Mono.zip(
+                cardCacheService.getData(CardType.STREAK, dataId(username, "github"),
+                        () -> githubService.fetchStreakStats(username)),
+                cardDeadlines.optional(wakaTimeMono, deadline))
+                .publishOn(renderScheduler)
                 .map(tuple -> {
                     var stats = tuple.getT1();
-                    var timeText = tuple.getT2();
-
-                    String svg = svgService.generateStreakCard(stats, colors, hide_border, timeText);
-                    return createSvgResponse(svg, 3600);
-                })
-                .onErrorResume(e -> {
-                    e.printStackTrace();
-                    String errorSvg = svgService.generateTestSvg("Streak Error: " + e.getMessage());
-                    return Mono.just(new ResponseEntity<>(errorSvg, HttpStatus.BAD_REQUEST));
-                });
+                    var timeText = tuple.getT2().orElse("");
+
+                    String svg = cardMetrics.render(CardType.STREAK,
+                            () -> svgService.generateStreakCard(stats, colors, hide_border, timeText));
+                    return rendered(CardType.STREAK, svg, tuple.getT2().isEmpty());
+                }))
+                .map(card -> createSvgResponse(card, CardType.STREAK, requestHeaders))
+                .onErrorResume(e -> Mono.fromSupplier(() -> createErrorResponse(key, e, "Streak Error: ")));
     }
 
     @GetMapping("/graph")
-    public Mono<ResponseEntity<String>> getContributionGraph(
+    public Mono<ResponseEntity<byte[]>> getContributionGraph(
             @RequestParam String username,
             @RequestParam(required = false) String waka_user,
             @RequestParam(required = false) String title_color,
@@ -225,7 +275,9 @@ public class StatsController {
             @RequestParam(required = false) String text_color,
             @RequestParam(required = false) String bg_color,
             @RequestParam(required = false) String border_color,
-            @RequestParam(defaultValue = "false") boolean hide_border) {
+            @RequestParam(defaultValue = "false") boolean hide_border,
+            @RequestParam(required = false) Long deadline_ms,
+            @RequestHeader HttpHeaders requestHeaders) {
         Map<String, String> colors = new HashMap<>();
         if (title_color != null)
             colors.put("title_color", title_color);
@@ -240,26 +292,33 @@ public class StatsController {
 
         String finalWakaUser = waka_user != null ? waka_user : username;
 
-        return Mono.zip(
-                githubService.fetchContributions(username),
-                wakaTimeService.getDailySummaries(finalWakaUser, 7)
-                        .defaultIfEmpty(new com.n33miaz.stats.dto.WakaTimeSummaryResponse(Collections.emptyList())))
-                .map(tuple -> {
-                    var githubData = tuple.getT1();
-                    var wakaData = tuple.getT2();
+        CardKey key = CardKey.of(CardType.GRAPH, username, finalWakaUser, colors, hide_border, false);
 
-                    String svg = svgService.generateContributionGraph(githubData, wakaData, colors, hide_border,
-                            username);
+        Duration deadline = cardDeadlines.resolve(CardType.GRAPH, deadline_ms);
+        var noWakaData = new com.n33miaz.stats.dto.WakaTimeSummaryResponse(Collections.emptyList());
 
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.add("Content-Type", "image/svg+xml");
-                    headers.add("Cache-Control", "public, max-age=3600"); // 1 hora
-                    return new ResponseEntity<>(svg, headers, HttpStatus.OK);
-                });
+        // série do WakaTime fora do prazo ou indisponível: gráfico só com as contribuições, card parcial.
+        // o calendário já tem cache próprio (ContributionSnapshotService), compartilhado com o /streak
+        return cardCacheService.getCompositeCard(key, () -> Mono.zip(
+                contributionSnapshotService.getSnapshot(username),
+                cardDeadlines.optional(cardCacheService.getData(CardType.GRAPH, dataId(finalWakaUser, "wakatime"),
+                        () -> wakaTimeService.getDailySummaries(finalWakaUser, 7)),
+                        deadline))
+                .publishOn(renderScheduler)
+                .map(tuple -> {
+                    var githubData = tuple.getT1();
+                    var wakaData = tuple.getT2().orElse(noWakaData);
+
+                    String svg = cardMetrics.render(CardType.GRAPH, () -> svgService.generateContributionGraph(
+                            githubData, wakaData, colors, hide_border, username));
+                    return rendered(CardType.GRAPH, svg, tuple.getT2().isEmpty());
+                }))
+                .map(card -> createSvgResponse(card, CardType.GRAPH, requestHeaders)) // 1 hora
+                .onErrorResume(e -> Mono.fromSupplier(() -> createErrorResponse(key, e, "Graph Error: ")));
     }
 
     @GetMapping("/music")
-    public Mono<ResponseEntity<String>> getMusicCard(
+    public Mono<ResponseEntity<byte[]>> getMusicCard(
             @RequestParam String user,
             @RequestParam(required = false, defaultValue = "7day") String period, // PERIODO
             @RequestParam(required = false) String title_color,
@@ -267,7 +326,8 @@ public class StatsController {
             @RequestParam(required = false) String text_color,
             @RequestParam(required = false) String bg_color,
             @RequestParam(required = false) String border_color,
-            @RequestParam(defaultValue = "false") boolean hide_border) {
+            @RequestParam(defaultValue = "false") boolean hide_border,
+            @RequestHeader HttpHeaders requestHeaders) {
         Map<String, String> colors = new HashMap<>();
         if (title_color != null)
             colors.put("title_color", title_color);
@@ -289,29 +349,142 @@ public class StatsController {
             default -> "7 Days";
         };
 
-        return lastFmService.getDashboardData(user, period)
-                .map(data -> {
-                    String svg = svgService.generateMusicDashboard(data, colors, hide_border, periodText);
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.add("Content-Type", "image/svg+xml");
-                    headers.add("Cache-Control", "public, max-age=60"); // Cache de 1 min
-                    return new ResponseEntity<>(svg, headers, HttpStatus.OK);
-                })
-                .onErrorResume(e -> {
-                    e.printStackTrace();
-                    String errorSvg = svgService.generateTestSvg("Music Error: " + e.getMessage());
-                    return Mono.just(new ResponseEntity<>(errorSvg, HttpStatus.BAD_REQUEST));
-                });
+        CardKey key = CardKey.of(CardType.MUSIC, user, period, colors, hide_border, false);
+
+        return cardCacheService.getCard(key, () -> cardCacheService
+                .getData(CardType.MUSIC, dataId(user, period), () -> lastFmService.getDashboardData(user, period))
+                .publishOn(renderScheduler)
+                .map(data -> cardMetrics.render(CardType.MUSIC,
+                        () -> svgService.generateMusicDashboard(data, colors, hide_border, periodText))))
+                .map(card -> createSvgResponse(card, CardType.MUSIC, requestHeaders)) // Cache de 1 min
+                .onErrorResume(e -> Mono.fromSupplier(() -> createErrorResponse(key, e, "Music Error: ")));
     }
 
-    private ResponseEntity<String> createSvgResponse(String svg, int cacheAge) {
+    // parâmetro obrigatório ausente/inválido: card de erro em vez do JSON padrão do WebFlux
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<byte[]> handleInputError(ServerWebInputException e) {
+        return createErrorResponse(svgService.generateTestSvg("Error: " + e.getReason()));
+    }
+
+    private String dataId(String username, String variant) {
+        return username.toLowerCase(Locale.ROOT) + "|" + variant;
+    }
+
+    private Rendered rendered(CardType type, String svg, boolean partial) {
+        if (partial) {
+            cardDeadlines.partial(type);
+        }
+        return new Rendered(svg, partial);
+    }
+
+    // card com etag e gzip pré-calculado: If-None-Match igual devolve 304 sem corpo, mesmo vindo do cache.
+    // card parcial sai com no-cache para o camo/navegador buscarem de novo a versão completa
+    private ResponseEntity<byte[]> createSvgResponse(CachedCard card, CardType type, HttpHeaders request) {
+        HttpHeaders headers;
+        if (card.partial()) {
+            headers = svgHeaders(0, 0);
+        } else {
+            // Age desconta o tempo já passado no cache; card vencido (servido enquanto revalida) sai com
+            // max-age=0 para o CDN não segurá-lo por mais um TTL inteiro
+            long age = Math.max(0, Duration.between(card.renderedAt(), Instant.now()).toSeconds());
+            int maxAge = age < type.maxAge() ? type.maxAge() : 0;
+            headers = svgHeaders(maxAge, cardCacheService.staleWindow(type).toSeconds());
+            headers.add("Age", Long.toString(age));
+        }
+        headers.add("Vary", "Accept-Encoding");
+
+        boolean gzip = card.hasGzip() && acceptsGzip(request.get(HttpHeaders.ACCEPT_ENCODING));
+        headers.add("ETag", gzip ? card.gzipEtag() : card.etag());
+
+        String ifNoneMatch = request.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (etagMatches(ifNoneMatch, card.etag()) || card.hasGzip() && etagMatches(ifNoneMatch, card.gzipEtag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        if (gzip) {
+            headers.add("Content-Encoding", "gzip");
+            return new ResponseEntity<>(card.gzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(card.svg(), headers, HttpStatus.OK);
+    }
+
+    private ResponseEntity<byte[]> createSvgResponse(String svg, int cacheAge) {
+        return new ResponseEntity<>(svg.getBytes(StandardCharsets.UTF_8), svgHeaders(cacheAge, 0), HttpStatus.OK);
+    }
+
+    // erro permanente (não encontrado, 4xx) sai do cache negativo com max-age do próprio TTL;
+    // transitório é refeito a cada requisição e não é cacheado pelo cliente. sem log por requisição:
+    // cards.cache.requests{result="negative"} já conta os hits
+    private ResponseEntity<byte[]> createErrorResponse(CardKey key, Throwable e, String prefix) {
+        Duration ttl = cardCacheService.negativeTtl(e);
+        CachedCard card = cardCacheService.getErrorCard(key, e,
+                () -> svgService.generateTestSvg(prefix + e.getMessage()));
+        return new ResponseEntity<>(card.svg(), svgHeaders((int) ttl.toSeconds(), 0), HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<byte[]> createErrorResponse(String svg) {
+        return new ResponseEntity<>(svg.getBytes(StandardCharsets.UTF_8), svgHeaders(0, 0), HttpStatus.BAD_REQUEST);
+    }
+
+    private HttpHeaders svgHeaders(int cacheAge, long staleWhileRevalidate) {
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Type", "image/svg+xml");
-        if (cacheAge > 0) {
+        if (staleWhileRevalidate > 0) {
+            headers.add("Cache-Control",
+                    "public, max-age=" + cacheAge + ", stale-while-revalidate=" + staleWhileRevalidate);
+        } else if (cacheAge > 0) {
             headers.add("Cache-Control", "public, max-age=" + cacheAge);
         } else {
             headers.add("Cache-Control", "no-cache");
         }
-        return new ResponseEntity<>(svg, headers, HttpStatus.OK);
+        return headers;
+    }
+
+    // gzip com q > 0, explícito ou via "*"
+    private static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String header : acceptEncoding) {
+            for (String part : header.split(",")) {
+                String[] params = part.trim().split(";");
+                String coding = params[0].trim().toLowerCase(Locale.ROOT);
+                boolean allowed = true;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            allowed = Double.parseDouble(param.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            allowed = false;
+                        }
+                    }
+                }
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    return allowed;
+                }
+                if (coding.equals("*")) {
+                    wildcard = allowed;
+                }
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    // aceita lista ("a", "b"), "*" e etags fracos (W/"a"), como no If-None-Match do RFC 9110
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
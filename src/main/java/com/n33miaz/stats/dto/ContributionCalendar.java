@@ -0,0 +1,127 @@
+package com.n33miaz.stats.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+// calendário compacto: dia inicial (epoch day) + contagem por dia, sem um objeto por dia
+@JsonDeserialize(using = ContributionCalendarDeserializer.class)
+public final class ContributionCalendar {
+
+    public static final ContributionCalendar EMPTY = new ContributionCalendar(0, new int[0]);
+
+    private final long startEpochDay;
+    private final int[] counts;
+
+    public ContributionCalendar(long startEpochDay, int[] counts) {
+        this.startEpochDay = startEpochDay;
+        this.counts = counts;
+    }
+
+    // monta o calendário a partir de pares (epoch day, contagem) em qualquer ordem
+    public static ContributionCalendar of(long[] epochDays, int[] dayCounts, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+            first = Math.min(first, epochDays[i]);
+            last = Math.max(last, epochDays[i]);
+        }
+
+        int[] counts = new int[(int) (last - first + 1)];
+        for (int i = 0; i < length; i++) {
+            counts[(int) (epochDays[i] - first)] = dayCounts[i];
+        }
+
+        return new ContributionCalendar(first, counts);
+    }
+
+    public long startEpochDay() {
+        return startEpochDay;
+    }
+
+    public long endEpochDay() {
+        return startEpochDay + counts.length - 1;
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    public boolean isEmpty() {
+        return counts.length == 0;
+    }
+
+    public int countAt(int index) {
+        return counts[index];
+    }
+
+    // dias fora do calendário contam como zero
+    public int countOn(long epochDay) {
+        long index = epochDay - startEpochDay;
+        return index >= 0 && index < counts.length ? counts[(int) index] : 0;
+    }
+
+    public int sumBetween(long fromEpochDay, long toEpochDay) {
+        int from = (int) Math.max(0, fromEpochDay - startEpochDay);
+        int to = (int) Math.min(counts.length - 1L, toEpochDay - startEpochDay);
+
+        int sum = 0;
+        for (int i = from; i <= to; i++) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    // "yyyy-MM-dd" -> epoch day, sem passar por LocalDate.parse
+    public static long parseEpochDay(CharSequence iso) {
+        char[] chars = iso.toString().toCharArray();
+        return parseEpochDay(chars, 0, chars.length);
+    }
+
+    // versão sobre o buffer do parser, sem criar String
+    public static long parseEpochDay(char[] buf, int offset, int length) {
+        if (length != 10 || buf[offset + 4] != '-' || buf[offset + 7] != '-') {
+            throw new IllegalArgumentException("Data inválida: " + new String(buf, offset, length));
+        }
+        int year = digits(buf, offset, offset + 4);
+        int month = digits(buf, offset + 5, offset + 7);
+        int day = digits(buf, offset + 8, offset + 10);
+        return epochDay(year, month, day);
+    }
+
+    // mesmo algoritmo de LocalDate.toEpochDay
+    public static long epochDay(int year, int month, int day) {
+        long y = year;
+        long m = month;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * m - 362) / 12;
+        total += day - 1;
+        if (m > 2) {
+            total--;
+            boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+            if (!leap) {
+                total--;
+            }
+        }
+        return total - 719528;
+    }
+
+    private static int digits(char[] buf, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = buf[i];
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Data inválida: " + new String(buf, from, to - from));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+package com.n33miaz.stats.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.n33miaz.stats.service.GithubService;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// lê a resposta GraphQL do calendário token a token, direto para dia/contagem. sem dias, os "errors" viram
+// a mesma exceção de GithubService (NOT_FOUND permanente, o resto transitório), nunca um calendário vazio
+public class ContributionCalendarDeserializer extends StdDeserializer<ContributionCalendar> {
+
+    // único caminho percorrido; "errors" é lido à parte e qualquer outro objeto/array é pulado
+    private static final Set<String> PATH = Set.of(
+            "data", "user", "contributionsCollection", "contributionCalendar", "weeks", "contributionDays");
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    public ContributionCalendarDeserializer() {
+        super(ContributionCalendar.class);
+    }
+
+    @Override
+    public ContributionCalendar deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        long[] epochDays = new long[384];
+        int[] counts = new int[384];
+        int length = 0;
+
+        long date = NO_DATE;
+        int count = -1;
+        int depth = 0;
+        List<GraphQlError> errors = List.of();
+
+        JsonToken token = p.currentToken();
+        while (token != null) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> depth++;
+                case END_ARRAY -> depth--;
+                case END_OBJECT -> {
+                    depth--;
+                    // fim de um contributionDay
+                    if (date != NO_DATE && count >= 0) {
+                        if (length == epochDays.length) {
+                            epochDays = Arrays.copyOf(epochDays, length * 2);
+                            counts = Arrays.copyOf(counts, length * 2);
+                        }
+                        epochDays[length] = date;
+                        counts[length] = count;
+                        length++;
+                    }
+                    date = NO_DATE;
+                    count = -1;
+                }
+                case FIELD_NAME -> {
+                    String name = p.currentName();
+                    JsonToken value = p.nextToken();
+
+                    if (depth == 1 && "errors".equals(name) && value == JsonToken.START_ARRAY) {
+                        errors = List.of(ctxt.readValue(p, GraphQlError[].class));
+                    } else if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        if (PATH.contains(name)) {
+                            depth++;
+                        } else {
+                            p.skipChildren();
+                        }
+                    } else if ("date".equals(name) && value == JsonToken.VALUE_STRING) {
+                        date = ContributionCalendar.parseEpochDay(p.getTextCharacters(), p.getTextOffset(),
+                                p.getTextLength());
+                    } else if ("contributionCount".equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                        count = p.getIntValue();
+                    }
+                }
+                default -> {
+                }
+            }
+
+            if (depth == 0) {
+                break;
+            }
+            token = p.nextToken();
+        }
+
+        if (length == 0) {
+            throw GithubService.graphQlFailure(errors, "Usuário não encontrado");
+        }
+        return ContributionCalendar.of(epochDays, counts, length);
+    }
+
+    @Override
+    public ContributionCalendar getNullValue(DeserializationContext ctxt) {
+        return ContributionCalendar.EMPTY;
+    }
+}
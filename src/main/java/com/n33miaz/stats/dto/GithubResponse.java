@@ -1,6 +1,8 @@
 package com.n33miaz.stats.dto;
 
-public record GithubResponse(Data data) {
+import java.util.List;
+
+public record GithubResponse(Data data, List<GraphQlError> errors) {
     public record Data(Repository repository) {
     }
 
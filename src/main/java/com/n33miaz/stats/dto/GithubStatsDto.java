@@ -2,7 +2,7 @@ package com.n33miaz.stats.dto;
 
 import java.util.List;
 
-public record GithubStatsDto(Data data) {
+public record GithubStatsDto(Data data, List<GraphQlError> errors) {
     public record Data(User user) {
     }
 
@@ -0,0 +1,5 @@
+package com.n33miaz.stats.dto;
+
+// item de "errors" do GraphQL do GitHub (type: NOT_FOUND, RATE_LIMITED, ...); vem com HTTP 200
+public record GraphQlError(String type, String message) {
+}
@@ -0,0 +1,165 @@
+package com.n33miaz.stats.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// artista -> URL da capa encontrada via artist.gettopalbums (quando o Last.fm só tem o placeholder).
+// muda quase nunca, então dura semanas e sobrevive a restarts num arquivo (lastfm.artist-images.file;
+// vazio = só memória)
+@Component
+public class ArtistImageStore implements MeterBinder {
+
+    private final Cache<String, ResolvedImage> images;
+    private final Duration ttl;
+    private final Path file;
+
+    // só grava o arquivo se algo mudou desde o último save
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public ArtistImageStore(
+            @Value("${lastfm.artist-images.ttl:2592000}") long ttlSeconds,
+            @Value("${lastfm.artist-images.max-size:50000}") long maxSize,
+            @Value("${lastfm.artist-images.file:}") String file) {
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.images = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ResolvedAtExpiry(ttl))
+                .recordStats()
+                .build();
+    }
+
+    // null = desconhecido; "" = artista sem nenhuma capa
+    public String get(String artist) {
+        ResolvedImage image = images.getIfPresent(key(artist));
+        return image != null ? image.url() : null;
+    }
+
+    public void put(String artist, String url) {
+        images.put(key(artist), new ResolvedImage(url != null ? url : "", Instant.now().getEpochSecond()));
+        dirty.set(true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, images, "artist-images");
+    }
+
+    // --- PERSISTÊNCIA ---
+
+    @PostConstruct
+    public void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // artista \t resolvidoEm \t url
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    ResolvedImage image = new ResolvedImage(parts[2], Long.parseLong(parts[1]));
+                    if (!image.isExpired(ttl)) {
+                        images.put(parts[0], image);
+                    }
+                } catch (NumberFormatException e) {
+                    // linha corrompida: ignora
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar capas de artistas: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${lastfm.artist-images.save-interval-ms:300000}")
+    public void scheduledSave() {
+        if (dirty.get()) {
+            save();
+        }
+    }
+
+    @PreDestroy
+    public void save() {
+        if (file == null || !dirty.getAndSet(false)) {
+            return;
+        }
+
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, ResolvedImage> entry : images.asMap().entrySet()) {
+                    String artist = entry.getKey();
+                    ResolvedImage image = entry.getValue();
+                    if (artist.indexOf('\t') >= 0 || artist.indexOf('\n') >= 0 || image.isExpired(ttl)) {
+                        continue;
+                    }
+                    writer.write(artist + "\t" + image.resolvedAt() + "\t" + image.url());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            System.err.println("Erro ao salvar capas de artistas: " + e.getMessage());
+        }
+    }
+
+    private static String key(String artist) {
+        return artist.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record ResolvedImage(String url, long resolvedAt) {
+
+        boolean isExpired(Duration ttl) {
+            return Instant.ofEpochSecond(resolvedAt).plus(ttl).isBefore(Instant.now());
+        }
+    }
+
+    // validade conta a partir da resolução original, inclusive para entradas lidas do arquivo
+    private record ResolvedAtExpiry(Duration ttl) implements Expiry<String, ResolvedImage> {
+
+        @Override
+        public long expireAfterCreate(String key, ResolvedImage image, long currentTime) {
+            Instant expiresAt = Instant.ofEpochSecond(image.resolvedAt()).plus(ttl);
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ResolvedImage image, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, image, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ResolvedImage image, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
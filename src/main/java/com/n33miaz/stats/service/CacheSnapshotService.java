@@ -0,0 +1,333 @@
+package com.n33miaz.stats.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.n33miaz.stats.dto.ContributionCalendar;
+import com.n33miaz.stats.service.CardCacheService.CachedCard;
+import com.n33miaz.stats.service.CardCacheService.CardKey;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// cards, calendários de contribuição e miniaturas em um arquivo binário, salvo periodicamente e no
+// shutdown. no start o arquivo é mapeado em memória e cada entrada volta com o prazo que restava,
+// então um deploy não começa com o cache vazio (e o GitHub recebendo tudo de uma vez)
+@Component
+public class CacheSnapshotService implements MeterBinder {
+
+    private static final int MAGIC = 0x53544353; // "STCS"
+    private static final int VERSION = 1;
+
+    private static final byte CARDS = 1;
+    private static final byte CONTRIBUTIONS = 2;
+    private static final byte THUMBNAILS = 3;
+
+    private final CardCacheService cardCacheService;
+    private final ContributionSnapshotService contributionSnapshotService;
+    private final ImageService imageService;
+    private final Path file;
+
+    // sem log: entradas restauradas e falhas de leitura/gravação saem como métricas
+    private final AtomicLong restored = new AtomicLong();
+    private final LongAdder restoreFailures = new LongAdder();
+    private final LongAdder saveFailures = new LongAdder();
+
+    public CacheSnapshotService(
+            CardCacheService cardCacheService,
+            ContributionSnapshotService contributionSnapshotService,
+            ImageService imageService,
+            @Value("${cache.snapshot.enabled:false}") boolean enabled,
+            @Value("${cache.snapshot.file:}") String file) {
+        this.cardCacheService = cardCacheService;
+        this.contributionSnapshotService = contributionSnapshotService;
+        this.imageService = imageService;
+        this.file = enabled ? prepare(file) : null;
+    }
+
+    // caminho relativo vira absoluto no start; diretório criado e testado agora, não no primeiro save
+    private static Path prepare(String file) {
+        if (file.isBlank()) {
+            throw new IllegalStateException("cache.snapshot.enabled=true exige cache.snapshot.file");
+        }
+        Path path = Path.of(file).toAbsolutePath();
+        Path dir = path.getParent();
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Diretório do snapshot de cache inacessível: " + dir, e);
+        }
+        if (!Files.isWritable(dir)) {
+            throw new IllegalStateException("Diretório do snapshot de cache sem permissão de escrita: " + dir);
+        }
+        return path;
+    }
+
+    // --- RESTAURAÇÃO ---
+
+    @PostConstruct
+    public void restore() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                restoreFailures.increment();
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            while (buffer.hasRemaining()) {
+                byte section = buffer.get();
+                int count = buffer.getInt();
+                int loaded = switch (section) {
+                    case CARDS -> readSection(buffer, count, now, CacheSnapshotService::readCardKey,
+                            CacheSnapshotService::readCard, cardCacheService.cards());
+                    case CONTRIBUTIONS -> readSection(buffer, count, now, CacheSnapshotService::readString,
+                            CacheSnapshotService::readCalendar, contributionSnapshotService.cache().synchronous());
+                    case THUMBNAILS -> readSection(buffer, count, now, CacheSnapshotService::readString,
+                            CacheSnapshotService::readString, imageService.cache().synchronous());
+                    default -> throw new IOException("seção desconhecida " + section);
+                };
+                restored.addAndGet(loaded);
+            }
+        } catch (IOException | RuntimeException e) {
+            // arquivo truncado/corrompido: segue com o que já entrou, o resto vem dos upstreams
+            restoreFailures.increment();
+        }
+    }
+
+    private static <K, V> int readSection(ByteBuffer buffer, int count, long now, Reader<K> keyReader,
+            Reader<V> valueReader, Cache<K, V> cache) throws IOException {
+        Policy.VarExpiration<K, V> expiration = variable(cache);
+        int loaded = 0;
+        for (int i = 0; i < count; i++) {
+            long expiresAt = buffer.getLong();
+            K key = keyReader.read(buffer);
+            V value = valueReader.read(buffer);
+            long remaining = expiresAt - now;
+            if (remaining > 0) {
+                expiration.put(key, value, remaining, TimeUnit.MILLISECONDS);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    // --- GRAVAÇÃO ---
+
+    @Scheduled(initialDelayString = "${cache.snapshot.save-interval-ms:600000}",
+            fixedDelayString = "${cache.snapshot.save-interval-ms:600000}")
+    public void scheduledSave() {
+        save();
+    }
+
+    @PreDestroy
+    public synchronized void save() {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                long now = System.currentTimeMillis();
+                writeSection(out, CARDS, now, cardCacheService.cards(),
+                        CacheSnapshotService::writeCardKey, CacheSnapshotService::writeCard);
+                writeSection(out, CONTRIBUTIONS, now, contributionSnapshotService.cache().synchronous(),
+                        CacheSnapshotService::writeString, CacheSnapshotService::writeCalendar);
+                writeSection(out, THUMBNAILS, now, imageService.cache().synchronous(),
+                        CacheSnapshotService::writeString, CacheSnapshotService::writeString);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            saveFailures.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cache.snapshot.restored", restored, AtomicLong::get)
+                .description("Entradas restauradas do snapshot no start")
+                .register(registry);
+        FunctionCounter.builder("cache.snapshot.failures", restoreFailures, LongAdder::sum)
+                .description("Falhas ao ler ou gravar o snapshot de cache")
+                .tag("operation", "restore")
+                .register(registry);
+        FunctionCounter.builder("cache.snapshot.failures", saveFailures, LongAdder::sum)
+                .description("Falhas ao ler ou gravar o snapshot de cache")
+                .tag("operation", "save")
+                .register(registry);
+    }
+
+    // prazo absoluto (epoch ms) de cada entrada, calculado a partir do tempo que ainda resta nela
+    private static <K, V> void writeSection(DataOutputStream out, byte section, long now, Cache<K, V> cache,
+            Writer<K> keyWriter, Writer<V> valueWriter) throws IOException {
+        Policy.VarExpiration<K, V> expiration = variable(cache);
+        List<Map.Entry<K, V>> entries = new ArrayList<>(cache.asMap().entrySet());
+        List<Long> expiries = new ArrayList<>(entries.size());
+        for (Map.Entry<K, V> entry : entries) {
+            Optional<Duration> remaining = expiration.getExpiresAfter(entry.getKey());
+            expiries.add(remaining.map(left -> now + left.toMillis()).orElse(0L));
+        }
+
+        int count = 0;
+        for (long expiresAt : expiries) {
+            count += expiresAt > now ? 1 : 0;
+        }
+
+        out.writeByte(section);
+        out.writeInt(count);
+        for (int i = 0; i < entries.size(); i++) {
+            long expiresAt = expiries.get(i);
+            if (expiresAt <= now) {
+                continue;
+            }
+            out.writeLong(expiresAt);
+            keyWriter.write(out, entries.get(i).getKey());
+            valueWriter.write(out, entries.get(i).getValue());
+        }
+    }
+
+    private static <K, V> Policy.VarExpiration<K, V> variable(Cache<K, V> cache) {
+        return cache.policy().expireVariably()
+                .orElseThrow(() -> new IllegalStateException("cache sem expiração variável"));
+    }
+
+    // --- FORMATO ---
+
+    private static void writeCardKey(DataOutputStream out, CardKey key) throws IOException {
+        writeString(out, key.type().name());
+        writeString(out, key.username());
+        writeString(out, key.variant());
+        out.writeInt(key.colors().size());
+        for (Map.Entry<String, String> color : key.colors().entrySet()) {
+            writeString(out, color.getKey());
+            writeString(out, color.getValue());
+        }
+        out.writeBoolean(key.hideBorder());
+        out.writeBoolean(key.showDescription());
+    }
+
+    private static CardKey readCardKey(ByteBuffer in) {
+        CardType type = CardType.valueOf(readString(in));
+        String username = readString(in);
+        String variant = readString(in);
+        int colorCount = in.getInt();
+        Map<String, String> colors = new HashMap<>();
+        for (int i = 0; i < colorCount; i++) {
+            colors.put(readString(in), readString(in));
+        }
+        boolean hideBorder = in.get() != 0;
+        boolean showDescription = in.get() != 0;
+        return CardKey.of(type, username, variant, colors, hideBorder, showDescription);
+    }
+
+    // svg e gzip já prontos: a restauração não recomprime nem recalcula o etag
+    private static void writeCard(DataOutputStream out, CachedCard card) throws IOException {
+        writeBytes(out, card.svg());
+        writeBytes(out, card.gzip());
+        writeString(out, card.etag());
+        out.writeLong(card.renderedAt().toEpochMilli());
+    }
+
+    private static CachedCard readCard(ByteBuffer in) {
+        byte[] svg = readBytes(in);
+        byte[] gzip = readBytes(in);
+        String etag = readString(in);
+        Instant renderedAt = Instant.ofEpochMilli(in.getLong());
+        return new CachedCard(svg, gzip, etag, renderedAt, false);
+    }
+
+    private static void writeCalendar(DataOutputStream out, ContributionCalendar calendar) throws IOException {
+        out.writeLong(calendar.startEpochDay());
+        out.writeInt(calendar.size());
+        for (int i = 0; i < calendar.size(); i++) {
+            out.writeInt(calendar.countAt(i));
+        }
+    }
+
+    private static ContributionCalendar readCalendar(ByteBuffer in) {
+        long start = in.getLong();
+        int[] counts = new int[in.getInt()];
+        in.asIntBuffer().get(counts);
+        in.position(in.position() + counts.length * Integer.BYTES);
+        return new ContributionCalendar(start, counts);
+    }
+
+    // tamanho em int (writeUTF limita a 64KB; data URIs passam disso)
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    // -1 = null
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+
+    @FunctionalInterface
+    private interface Writer<T> {
+        void write(DataOutputStream out, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(ByteBuffer in) throws IOException;
+    }
+}
@@ -0,0 +1,369 @@
+package com.n33miaz.stats.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class CardCacheService implements MeterBinder {
+
+    // nível 1: SVG final, por combinação de cores/opções
+    private final Cache<CardKey, CachedCard> cards;
+
+    // nível 2: dados dos upstreams, compartilhados entre variações de cor
+    private final Cache<DataKey, Object> data;
+
+    // cache negativo: falhas permanentes (não encontrado, 4xx) por fonte de dados e o card de erro pronto
+    private final Cache<DataKey, Failure<Throwable>> dataFailures;
+    private final Cache<CardKey, Failure<CachedCard>> errorCards;
+    private final Duration notFoundTtl;
+    private final Duration errorTtl;
+
+    // janela em que um card expirado ainda é servido enquanto revalida
+    private final Map<CardType, Duration> staleWindows = new EnumMap<>(CardType.class);
+
+    // cards com revalidação em segundo plano já disparada
+    private final Set<CardKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Map<CardType, LongAdder> hits = new EnumMap<>(CardType.class);
+    private final Map<CardType, LongAdder> staleHits = new EnumMap<>(CardType.class);
+    private final Map<CardType, LongAdder> misses = new EnumMap<>(CardType.class);
+    private final Map<CardType, LongAdder> negativeHits = new EnumMap<>(CardType.class);
+
+    public CardCacheService(
+            Environment env,
+            @Value("${cache.cards.max-weight:67108864}") long cardsMaxWeight,
+            @Value("${cache.data.max-size:10000}") long dataMaxSize,
+            @Value("${cache.swr.max-staleness:86400}") long maxStaleness,
+            @Value("${cache.negative.not-found-ttl:600}") long notFoundTtlSeconds,
+            @Value("${cache.negative.error-ttl:60}") long errorTtlSeconds) {
+        for (CardType type : CardType.values()) {
+            String property = "cache.swr.stale-window." + type.name().toLowerCase(Locale.ROOT);
+            long window = env.getProperty(property, Long.class, (long) type.maxAge());
+            staleWindows.put(type, Duration.ofSeconds(Math.max(0, Math.min(window, maxStaleness))));
+
+            hits.put(type, new LongAdder());
+            staleHits.put(type, new LongAdder());
+            misses.put(type, new LongAdder());
+            negativeHits.put(type, new LongAdder());
+        }
+        this.notFoundTtl = Duration.ofSeconds(Math.max(0, notFoundTtlSeconds));
+        this.errorTtl = Duration.ofSeconds(Math.max(0, errorTtlSeconds));
+
+        this.cards = Caffeine.newBuilder()
+                .maximumWeight(cardsMaxWeight)
+                .weigher((CardKey key, CachedCard card) -> card.weight())
+                .expireAfter(new TypeExpiry<CardKey, CachedCard>(
+                        (key, card) -> ttl(key.type()).plus(staleWindow(key.type()))))
+                .recordStats()
+                .build();
+        this.data = Caffeine.newBuilder()
+                .maximumSize(dataMaxSize)
+                .expireAfter(new TypeExpiry<DataKey, Object>((key, value) -> ttl(key.type())))
+                .recordStats()
+                .build();
+        this.dataFailures = Caffeine.newBuilder()
+                .maximumSize(dataMaxSize)
+                .expireAfter(new TypeExpiry<DataKey, Failure<Throwable>>((key, failure) -> failure.ttl()))
+                .build();
+        this.errorCards = Caffeine.newBuilder()
+                .maximumSize(dataMaxSize)
+                .expireAfter(new TypeExpiry<CardKey, Failure<CachedCard>>((key, failure) -> failure.ttl()))
+                .build();
+    }
+
+    public Mono<CachedCard> getCard(CardKey key, Supplier<Mono<String>> renderer) {
+        return getCompositeCard(key, () -> renderer.get().map(Rendered::complete));
+    }
+
+    // card montado de várias fontes: versão parcial (fonte fora do prazo) vai para o cliente mas não
+    // para o cache; o próximo acesso renderiza de novo, já com o dado atrasado no cache de dados
+    public Mono<CachedCard> getCompositeCard(CardKey key, Supplier<Mono<Rendered>> renderer) {
+        return Mono.defer(() -> {
+            CachedCard cached = cards.getIfPresent(key);
+            if (cached != null) {
+                Instant expiresAt = cached.renderedAt().plus(ttl(key.type()));
+                if (Instant.now().isBefore(expiresAt)) {
+                    hits.get(key.type()).increment();
+                } else {
+                    staleHits.get(key.type()).increment();
+                    revalidate(key, renderer);
+                }
+                return Mono.just(cached);
+            }
+
+            misses.get(key.type()).increment();
+            return renderer.get()
+                    .map(Rendered::toCard)
+                    .doOnNext(card -> {
+                        if (!card.partial()) {
+                            cards.put(key, card);
+                        }
+                    });
+        });
+    }
+
+    // stale-while-revalidate: apenas uma atualização por card em andamento
+    private void revalidate(CardKey key, Supplier<Mono<Rendered>> renderer) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        renderer.get()
+                .doFinally(signal -> refreshing.remove(key))
+                .filter(rendered -> !rendered.partial())
+                .subscribe(
+                        rendered -> cards.put(key, rendered.toCard()),
+                        e -> System.err.println("Erro ao revalidar card " + key.type() + ": " + e.getMessage()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> getData(CardType type, String id, Supplier<Mono<T>> loader) {
+        DataKey key = new DataKey(type, id);
+        return Mono.defer(() -> {
+            Object cached = data.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just((T) cached);
+            }
+            Failure<Throwable> failure = dataFailures.getIfPresent(key);
+            if (failure != null) {
+                negativeHits.get(type).increment();
+                return Mono.error(failure.value());
+            }
+            return loader.get()
+                    .doOnNext(value -> data.put(key, value))
+                    .doOnError(e -> {
+                        Duration ttl = negativeTtl(e);
+                        if (!ttl.isZero()) {
+                            dataFailures.put(key, new Failure<>(e, ttl));
+                        }
+                    });
+        });
+    }
+
+    // card de erro: falha permanente reaproveita o SVG já gerado; transitória é gerada a cada vez
+    public CachedCard getErrorCard(CardKey key, Throwable error, Supplier<String> renderer) {
+        Duration ttl = negativeTtl(error);
+        if (ttl.isZero()) {
+            return CachedCard.partialOf(renderer.get());
+        }
+        return errorCards.get(key, k -> new Failure<>(CachedCard.of(renderer.get()), ttl)).value();
+    }
+
+    // tempo no cache negativo; zero = erro transitório (timeout, 5xx, limite de taxa), tenta de novo já.
+    // 401/403/429 dependem do token ou do momento, não do usuário pedido
+    public Duration negativeTtl(Throwable error) {
+        if (error instanceof GithubService.NotFoundException) {
+            return notFoundTtl;
+        }
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            if (status == HttpStatus.NOT_FOUND.value() || status == HttpStatus.GONE.value()) {
+                return notFoundTtl;
+            }
+            if (e.getStatusCode().is4xxClientError()
+                    && status != HttpStatus.UNAUTHORIZED.value()
+                    && status != HttpStatus.FORBIDDEN.value()
+                    && status != HttpStatus.REQUEST_TIMEOUT.value()
+                    && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return errorTtl;
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    public long hits(CardType type) {
+        return hits.get(type).sum();
+    }
+
+    public long staleHits(CardType type) {
+        return staleHits.get(type).sum();
+    }
+
+    public long misses(CardType type) {
+        return misses.get(type).sum();
+    }
+
+    public long negativeHits(CardType type) {
+        return negativeHits.get(type).sum();
+    }
+
+    // hit/stale/miss por card + estatísticas do Caffeine (evictions, tamanho)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CardType type : CardType.values()) {
+            String card = type.name().toLowerCase(Locale.ROOT);
+            cacheCounter(registry, card, "hit", hits.get(type));
+            cacheCounter(registry, card, "stale", staleHits.get(type));
+            cacheCounter(registry, card, "miss", misses.get(type));
+            cacheCounter(registry, card, "negative", negativeHits.get(type));
+        }
+        CaffeineCacheMetrics.monitor(registry, cards, "cards");
+        CaffeineCacheMetrics.monitor(registry, data, "upstream-data");
+    }
+
+    private static void cacheCounter(MeterRegistry registry, String card, String result, LongAdder counter) {
+        FunctionCounter.builder("cards.cache.requests", counter, LongAdder::sum)
+                .description("Requisições de card por resultado no cache")
+                .tag("card", card)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // para o snapshot em disco; cards parciais nunca entram no cache
+    Cache<CardKey, CachedCard> cards() {
+        return cards;
+    }
+
+    public Duration staleWindow(CardType type) {
+        return staleWindows.get(type);
+    }
+
+    private static Duration ttl(CardType type) {
+        return Duration.ofSeconds(type.maxAge());
+    }
+
+    // tempo de vida de cada entrada calculado a partir da chave (ou do valor, no cache negativo)
+    private record TypeExpiry<K, V>(BiFunction<K, V, Duration> lifetime) implements Expiry<K, V> {
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return lifetime.apply(key, value).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // --- RECORDS ---
+
+    public record CardKey(CardType type, String username, String variant, Map<String, String> colors,
+            boolean hideBorder, boolean showDescription) {
+
+        public static CardKey of(CardType type, String username, String variant, Map<String, String> colors,
+                boolean hideBorder, boolean showDescription) {
+            return new CardKey(
+                    type,
+                    username.toLowerCase(Locale.ROOT),
+                    variant != null ? variant : "",
+                    Collections.unmodifiableMap(new TreeMap<>(colors)),
+                    hideBorder,
+                    showDescription);
+        }
+    }
+
+    // SVG recém-gerado; partial = alguma fonte ficou de fora por prazo
+    public record Rendered(String svg, boolean partial) {
+
+        public static Rendered complete(String svg) {
+            return new Rendered(svg, false);
+        }
+
+        CachedCard toCard() {
+            return partial ? CachedCard.partialOf(svg) : CachedCard.of(svg);
+        }
+    }
+
+    // corpo UTF-8, variante gzip e etag calculados uma vez por render; hits só copiam bytes
+    public record CachedCard(byte[] svg, byte[] gzip, String etag, Instant renderedAt, boolean partial) {
+
+        // abaixo disso o gzip não compensa os cabeçalhos extras
+        private static final int MIN_GZIP_SIZE = 1024;
+
+        public static CachedCard of(String svg) {
+            byte[] body = svg.getBytes(StandardCharsets.UTF_8);
+            return new CachedCard(body, gzip(body), etag(body), Instant.now(), false);
+        }
+
+        // card parcial não é guardado: sem gzip pré-calculado, que só compensa em hits
+        public static CachedCard partialOf(String svg) {
+            byte[] body = svg.getBytes(StandardCharsets.UTF_8);
+            return new CachedCard(body, null, etag(body), Instant.now(), true);
+        }
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+
+        // mesma entidade, outra representação: etag próprio para não confundir caches intermediários
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        public int weight() {
+            return svg.length + (gzip != null ? gzip.length : 0);
+        }
+
+        private static String etag(byte[] body) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+                return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // nível máximo: comprime uma vez e serve milhares de vezes
+        private static byte[] gzip(byte[] body) {
+            if (body.length < MIN_GZIP_SIZE) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(body);
+            } catch (IOException e) {
+                return null;
+            }
+            byte[] compressed = out.toByteArray();
+            return compressed.length < body.length ? compressed : null;
+        }
+    }
+
+    private record DataKey(CardType type, String id) {
+    }
+
+    private record Failure<V>(V value, Duration ttl) {
+    }
+}
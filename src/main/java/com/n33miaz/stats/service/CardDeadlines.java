@@ -0,0 +1,74 @@
+package com.n33miaz.stats.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// prazo por card composto: o que não chega até o prazo fica de fora do SVG (camo desiste da imagem em
+// poucos segundos, card parcial é melhor que imagem quebrada). a chamada atrasada segue e preenche o
+// cache de dados para o próximo acesso
+@Component
+public class CardDeadlines {
+
+    private final Map<CardType, Duration> deadlines = new EnumMap<>(CardType.class);
+    private final Map<CardType, Counter> partials = new EnumMap<>(CardType.class);
+    private final Duration max;
+
+    public CardDeadlines(
+            Environment env,
+            MeterRegistry registry,
+            @Value("${cards.deadline.default-ms:3000}") long defaultMs,
+            @Value("${cards.deadline.max-ms:8000}") long maxMs) {
+        this.max = Duration.ofMillis(Math.max(1, maxMs));
+        for (CardType type : CardType.values()) {
+            String card = type.name().toLowerCase(Locale.ROOT);
+            long ms = env.getProperty("cards.deadline." + card + "-ms", Long.class, defaultMs);
+            deadlines.put(type, clamp(ms));
+            partials.put(type, Counter.builder("card.partial")
+                    .description("Cards renderizados sem alguma parte (prazo estourado ou fonte indisponível)")
+                    .tag("card", card)
+                    .register(registry));
+        }
+    }
+
+    // ?deadline_ms= do cliente vale até o teto configurado
+    public Duration resolve(CardType type, Long requestedMs) {
+        if (requestedMs == null || requestedMs <= 0) {
+            return deadlines.get(type);
+        }
+        return clamp(requestedMs);
+    }
+
+    // parte opcional do card: vazio se não chegar no prazo, falhar ou vier sem valor (fallback fica fora
+    // do cache de dados). a origem é assinada à parte e não é cancelada pelo timeout, então o resultado
+    // atrasado ainda passa pelo cache de dados
+    public <T> Mono<Optional<T>> optional(Mono<T> source, Duration deadline) {
+        return Mono.defer(() -> {
+            CompletableFuture<T> future = source.toFuture();
+            return Mono.fromFuture(future, true)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .timeout(deadline)
+                    .onErrorResume(e -> Mono.just(Optional.empty()));
+        });
+    }
+
+    public void partial(CardType type) {
+        partials.get(type).increment();
+    }
+
+    private Duration clamp(long ms) {
+        Duration requested = Duration.ofMillis(Math.max(1, ms));
+        return requested.compareTo(max) > 0 ? max : requested;
+    }
+}
@@ -0,0 +1,43 @@
+package com.n33miaz.stats.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// tempo de geração e tamanho de cada SVG, por tipo de card
+@Component
+public class CardMetrics {
+
+    private final Map<CardType, Timer> renderTimers = new EnumMap<>(CardType.class);
+    private final Map<CardType, DistributionSummary> sizes = new EnumMap<>(CardType.class);
+
+    public CardMetrics(MeterRegistry registry) {
+        for (CardType type : CardType.values()) {
+            String card = type.name().toLowerCase(Locale.ROOT);
+            renderTimers.put(type, Timer.builder("card.render")
+                    .description("Geração do SVG (sem chamadas externas)")
+                    .tag("card", card)
+                    .register(registry));
+            sizes.put(type, DistributionSummary.builder("card.size")
+                    .description("Tamanho do SVG gerado")
+                    .baseUnit("bytes")
+                    .tag("card", card)
+                    .register(registry));
+        }
+    }
+
+    public String render(CardType type, Supplier<String> renderer) {
+        String svg = renderTimers.get(type).record(renderer);
+        if (svg != null) {
+            // SVG é quase todo ASCII: length() ~ bytes no fio
+            sizes.get(type).record(svg.length());
+        }
+        return svg;
+    }
+}
@@ -0,0 +1,20 @@
+package com.n33miaz.stats.service;
+
+public enum CardType {
+    PIN(1800),
+    STATS(3600),
+    STREAK(3600),
+    GRAPH(3600),
+    MUSIC(60);
+
+    // mesmo max-age anunciado no Cache-Control
+    private final int maxAge;
+
+    CardType(int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public int maxAge() {
+        return maxAge;
+    }
+}
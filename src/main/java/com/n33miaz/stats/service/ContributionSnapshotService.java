@@ -0,0 +1,83 @@
+package com.n33miaz.stats.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.n33miaz.stats.dto.ContributionCalendar;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class ContributionSnapshotService implements MeterBinder {
+
+  @Autowired
+  private GithubGraphQlClient graphQl;
+
+  // um calendário por usuário, compartilhado por /streak e /graph
+  private final AsyncCache<String, ContributionCalendar> snapshots;
+
+  public ContributionSnapshotService(
+      @Value("${cache.contributions.ttl:3600}") long ttlSeconds,
+      @Value("${cache.contributions.max-size:10000}") long maxSize) {
+    this.snapshots = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new WriteExpiry<String, ContributionCalendar>(Duration.ofSeconds(ttlSeconds)))
+        .recordStats()
+        .buildAsync();
+  }
+
+  // para o snapshot em disco
+  AsyncCache<String, ContributionCalendar> cache() {
+    return snapshots;
+  }
+
+  public Mono<ContributionCalendar> getSnapshot(String username) {
+    String key = username.toLowerCase(Locale.ROOT);
+
+    // o AsyncCache também garante uma única busca em andamento por usuário. usuário inexistente e erro do
+    // GraphQL chegam como exceção e saem do cache antes de quem espera ver a falha (o Caffeine só
+    // descartaria o future falho depois)
+    return Mono.fromFuture(() -> snapshots.get(key, (login, executor) -> fetchContributions(login)
+        .doOnError(e -> invalidate(login))
+        .toFuture()), true);
+  }
+
+  public void invalidate(String username) {
+    snapshots.synchronous().invalidate(username.toLowerCase(Locale.ROOT));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, snapshots, "contributions");
+  }
+
+  // decodificado pelo ContributionCalendarDeserializer, sem o DTO aninhado
+  private Mono<ContributionCalendar> fetchContributions(String username) {
+    String query = """
+        query($username: String!) {
+          user(login: $username) {
+            contributionsCollection {
+              contributionCalendar {
+                weeks {
+                  contributionDays {
+                    date
+                    contributionCount
+                  }
+                }
+              }
+            }
+          }
+        }
+        """;
+
+    return graphQl.post("contribution_calendar", query, Map.of("username", username), ContributionCalendar.class);
+  }
+}
@@ -0,0 +1,45 @@
+package com.n33miaz.stats.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// POST único do GraphQL do GitHub: coalescido (mesma consulta/variáveis = uma chamada), protegido pelo
+// circuit breaker e medido. usado por GithubService e ContributionSnapshotService
+@Component
+public class GithubGraphQlClient {
+
+  @Autowired
+  private WebClient webClient;
+
+  @Autowired
+  private RequestCoalescer coalescer;
+
+  @Autowired
+  private UpstreamMetrics upstreamMetrics;
+
+  @Autowired
+  private UpstreamGuard upstreamGuard;
+
+  public <T> Mono<T> post(String operation, String query, Map<String, Object> variables, Class<T> responseType) {
+    return coalescer.coalesce("github-graphql", query, variables, () -> upstreamGuard
+        .protect("github-graphql", upstreamMetrics.timed("github-graphql", operation, webClient.post()
+            .bodyValue(Map.of("query", query, "variables", variables))
+            .retrieve()
+            .bodyToMono(responseType)))
+        .onErrorMap(GithubGraphQlClient::isDecodedFailure, Throwable::getCause));
+  }
+
+  // "errors" lido no decoder (ContributionCalendarDeserializer) chega embrulhado num 200 do WebClient;
+  // desembrulhado para o cache negativo distinguir NOT_FOUND de erro transitório. fora do circuit breaker:
+  // o upstream respondeu
+  private static boolean isDecodedFailure(Throwable error) {
+    return error instanceof WebClientResponseException
+        && (error.getCause() instanceof GithubService.NotFoundException
+            || error.getCause() instanceof GithubService.GraphQlException);
+  }
+}
@@ -1,38 +1,62 @@
 package com.n33miaz.stats.service;
 
-import com.n33miaz.stats.dto.GithubContributionResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.n33miaz.stats.config.UpstreamClientFactory;
+import com.n33miaz.stats.dto.ContributionCalendar;
 import com.n33miaz.stats.dto.GithubResponse;
 import com.n33miaz.stats.dto.GithubStatsDto;
+import com.n33miaz.stats.dto.GraphQlError;
 import com.n33miaz.stats.dto.StreakStatsDto;
 import com.n33miaz.stats.dto.TotalCommitsDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 @Service
 public class GithubService {
 
   @Autowired
-  private WebClient webClient;
+  private GithubGraphQlClient graphQl;
+
+  @Autowired
+  private RequestCoalescer coalescer;
+
+  @Autowired
+  private ContributionSnapshotService contributionSnapshotService;
+
+  @Autowired
+  private UpstreamMetrics upstreamMetrics;
+
+  @Autowired
+  private UpstreamGuard upstreamGuard;
 
   private final WebClient restWebClient;
 
-  public GithubService(WebClient.Builder webClientBuilder,
-      @org.springframework.beans.factory.annotation.Value("${github.token}") String token) {
-    this.restWebClient = webClientBuilder
-        .baseUrl("https://api.github.com")
-        .defaultHeader("Authorization", "Bearer " + token)
+  // última contagem da busca de commits por query, com os validadores para requisição condicional
+  private final Cache<String, CommitCount> commitCounts;
+
+  public GithubService(UpstreamClientFactory upstreamClientFactory, GithubTokenPool tokenPool,
+      @Value("${github.commits.cache.ttl:604800}") long commitsTtlSeconds,
+      @Value("${github.commits.cache.max-size:10000}") long commitsMaxSize) {
+    this.restWebClient = upstreamClientFactory.builder("github-rest")
+        .filter(tokenPool)
         .defaultHeader("Accept", "application/vnd.github.cloak-preview")
         .build();
+    this.commitCounts = Caffeine.newBuilder()
+        .maximumSize(commitsMaxSize)
+        .expireAfterWrite(Duration.ofSeconds(commitsTtlSeconds))
+        .build();
   }
 
   public Mono<GithubResponse.Repository> fetchRepository(String owner, String name) {
@@ -59,48 +83,16 @@ public class GithubService {
         """;
 
     Map<String, Object> variables = Map.of("owner", owner, "name", name);
-    Map<String, Object> body = Map.of("query", query, "variables", variables);
 
-    return webClient.post()
-        .bodyValue(body)
-        .retrieve()
-        .bodyToMono(GithubResponse.class)
+    return graphQl.post("repository", query, variables, GithubResponse.class)
         .map(response -> {
           if (response.data() == null || response.data().repository() == null) {
-            throw new RuntimeException("Repositório não encontrado");
+            throw graphQlFailure(response.errors(), "Repositório não encontrado");
           }
           return response.data().repository();
         });
   }
 
-  public Mono<GithubContributionResponse> fetchContributions(String username) {
-    String query = """
-        query($username: String!) {
-          user(login: $username) {
-            contributionsCollection {
-              contributionCalendar {
-                weeks {
-                  contributionDays {
-                    date
-                    contributionCount
-                    color
-                  }
-                }
-              }
-            }
-          }
-        }
-        """;
-
-    Map<String, Object> variables = Map.of("username", username);
-    Map<String, Object> body = Map.of("query", query, "variables", variables);
-
-    return webClient.post()
-        .bodyValue(body)
-        .retrieve()
-        .bodyToMono(GithubContributionResponse.class);
-  }
-
   public Mono<StatsData> fetchUserStats(String username) {
     Mono<GithubStatsDto> graphQlData = fetchGraphQlStats(username);
 
@@ -108,7 +100,11 @@ public class GithubService {
 
     return Mono.zip(graphQlData, totalCommitsData)
         .map(tuple -> {
-          var user = tuple.getT1().data().user();
+          var data = tuple.getT1().data();
+          if (data == null || data.user() == null) {
+            throw graphQlFailure(tuple.getT1().errors(), "Usuário não encontrado");
+          }
+          var user = data.user();
           int totalCommits = tuple.getT2();
 
           // total de estrelas
@@ -150,23 +146,80 @@ public class GithubService {
           }
         }
         """;
-    return webClient.post()
-        .bodyValue(Map.of("query", query, "variables", Map.of("login", username)))
-        .retrieve()
-        .bodyToMono(GithubStatsDto.class);
+    return graphQl.post("user_stats", query, Map.of("login", username), GithubStatsDto.class);
   }
 
   private Mono<Integer> fetchTotalCommits(String username) {
-    return restWebClient.get()
-        .uri("/search/commits?q=author:" + username)
-        .retrieve()
-        .bodyToMono(TotalCommitsDto.class)
-        .map(TotalCommitsDto::totalCount)
+    String uri = "/search/commits?q=author:" + username;
+
+    return coalescer.coalesce("github-rest", uri, null, () -> upstreamGuard
+        .protect("github-rest", upstreamMetrics.timed("github-rest", "search_commits", searchCommits(uri)))
+        .onErrorResume(error -> totalCommitsFallback(username, uri, error)));
+  }
+
+  // If-None-Match/If-Modified-Since: um 304 não conta no limite e devolve a contagem guardada
+  private Mono<Integer> searchCommits(String uri) {
+    return Mono.defer(() -> {
+      CommitCount cached = commitCounts.getIfPresent(uri);
+
+      return restWebClient.get()
+          .uri(uri)
+          .headers(headers -> {
+            if (cached != null && cached.etag() != null) {
+              headers.setIfNoneMatch(cached.etag());
+            }
+            if (cached != null && cached.lastModified() != null) {
+              headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+          })
+          .exchangeToMono(response -> {
+            if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+              return response.releaseBody().thenReturn(cached.totalCount());
+            }
+            if (!response.statusCode().is2xxSuccessful()) {
+              return response.createError();
+            }
+
+            HttpHeaders headers = response.headers().asHttpHeaders();
+            return response.bodyToMono(TotalCommitsDto.class)
+                .map(dto -> {
+                  commitCounts.put(uri, new CommitCount(
+                      headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), dto.totalCount()));
+                  return dto.totalCount();
+                });
+          });
+    });
+  }
+
+  // sem resposta da busca: última contagem conhecida; com o limite da busca esgotado (ou o circuito
+  // aberto) e nada guardado, estima pelo calendário de contribuições (último ano, inclui PRs e issues)
+  private Mono<Integer> totalCommitsFallback(String username, String uri, Throwable error) {
+    CommitCount cached = commitCounts.getIfPresent(uri);
+    if (cached != null) {
+      return Mono.just(cached.totalCount());
+    }
+    if (!isRateLimited(error) && !(error instanceof UpstreamGuard.UnavailableException)) {
+      return Mono.just(0);
+    }
+    return contributionSnapshotService.getSnapshot(username)
+        .map(calendar -> calendar.sumBetween(calendar.startEpochDay(), calendar.endEpochDay()))
         .onErrorReturn(0);
   }
 
+  private static boolean isRateLimited(Throwable error) {
+    if (error instanceof GithubTokenPool.RateLimitedException) {
+      return true;
+    }
+    return error instanceof WebClientResponseException e
+        && (e.getStatusCode().value() == HttpStatus.FORBIDDEN.value()
+            || e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value());
+  }
+
   // --- LÓGICA DE RANK ---
 
+  private record CommitCount(String etag, String lastModified, int totalCount) {
+  }
+
   public record StatsData(int commits, int contributedTo, int prs, int issues, Rank rank) {
   }
 
@@ -232,104 +285,47 @@ public class GithubService {
   }
 
   public Mono<StreakStatsDto> fetchStreakStats(String username) {
-    return fetchContributions(username)
+    return contributionSnapshotService.getSnapshot(username)
         .map(this::calculateStreak);
   }
 
-  private StreakStatsDto calculateStreak(GithubContributionResponse response) {
-    List<GithubContributionResponse.ContributionDay> allDays = new ArrayList<>();
+  private StreakStatsDto calculateStreak(ContributionCalendar calendar) {
+    return StreakCalculator.calculate(calendar, LocalDate.now());
+  }
 
-    if (response.data() != null && response.data().user() != null) {
-      response.data().user().contributionsCollection().contributionCalendar().weeks()
-          .forEach(week -> allDays.addAll(week.contributionDays()));
+  // data nulo vem com HTTP 200 tanto para entidade inexistente quanto para limite/timeout do GraphQL:
+  // só NOT_FOUND é permanente. também usado pelo ContributionCalendarDeserializer
+  public static RuntimeException graphQlFailure(List<GraphQlError> errors, String notFoundMessage) {
+    if (errors == null || errors.isEmpty()) {
+      return new GraphQlException(null, "Resposta do GitHub sem dados");
     }
+    if (errors.stream().anyMatch(error -> "NOT_FOUND".equals(error.type()))) {
+      return new NotFoundException(notFoundMessage);
+    }
+    GraphQlError first = errors.get(0);
+    return new GraphQlException(first.type(), "Erro do GitHub: " + first.message());
+  }
 
-    allDays.sort(Comparator.comparing(GithubContributionResponse.ContributionDay::date));
-
-    LocalDate today = LocalDate.now();
-    int currentYear = today.getYear();
-    DateTimeFormatter rangeFmt = DateTimeFormatter.ofPattern("MMM dd", Locale.US);
-
-    int totalCommitsYear = allDays.stream()
-        .filter(d -> LocalDate.parse(d.date()).getYear() == currentYear)
-        .mapToInt(GithubContributionResponse.ContributionDay::contributionCount)
-        .sum();
-
-    int currentStreak = 0;
-    int longestStreak = 0;
-    int tempStreak = 0;
-
-    LocalDate currentStreakStart = null;
-    LocalDate currentStreakEnd = null;
-
-    LocalDate longestStreakStart = null;
-    LocalDate longestStreakEnd = null;
-    LocalDate tempStart = null;
+  // usuário/repositório inexistente: erro permanente, guardado no cache negativo (CardCacheService)
+  public static class NotFoundException extends RuntimeException {
 
-    for (GithubContributionResponse.ContributionDay day : allDays) {
-      if (day.contributionCount() > 0) {
-        if (tempStreak == 0) {
-          tempStart = LocalDate.parse(day.date());
-        }
-        tempStreak++;
-
-        if (tempStreak > longestStreak) {
-          longestStreak = tempStreak;
-          longestStreakStart = tempStart;
-          longestStreakEnd = LocalDate.parse(day.date());
-        }
-      } else {
-        tempStreak = 0;
-        tempStart = null;
-      }
+    public NotFoundException(String message) {
+      super(message);
     }
+  }
 
-    boolean streakActive = false;
-    int size = allDays.size();
+  // erro transitório do GraphQL (RATE_LIMITED, timeout da consulta, ...): fora do cache negativo
+  public static class GraphQlException extends RuntimeException {
 
-    if (size > 0) {
-      var lastDay = allDays.get(size - 1);
-      LocalDate lastDate = LocalDate.parse(lastDay.date());
+    private final String type;
 
-      if ((lastDate.isEqual(today) || lastDate.isEqual(today.minusDays(1))) && lastDay.contributionCount() > 0) {
-        streakActive = true;
-      }
-      else if (size > 1) {
-        var yesterday = allDays.get(size - 2);
-        if (LocalDate.parse(yesterday.date()).isEqual(today.minusDays(1)) && yesterday.contributionCount() > 0) {
-          streakActive = true;
-        }
-      }
+    public GraphQlException(String type, String message) {
+      super(message);
+      this.type = type;
     }
 
-    if (streakActive) {
-      for (int i = size - 1; i >= 0; i--) {
-        var day = allDays.get(i);
-        if (day.contributionCount() > 0) {
-          currentStreak++;
-          currentStreakStart = LocalDate.parse(day.date());
-          if (currentStreakEnd == null)
-            currentStreakEnd = LocalDate.parse(day.date());
-        } else {
-          LocalDate d = LocalDate.parse(day.date());
-          if (!d.isEqual(today)) {
-            break;
-          }
-        }
-      }
+    public String getType() {
+      return type;
     }
-
-    String currentRange = formatRange(currentStreakStart, currentStreakEnd, rangeFmt);
-    String longestRange = formatRange(longestStreakStart, longestStreakEnd, rangeFmt);
-
-    return new StreakStatsDto(totalCommitsYear, currentStreak, currentRange, longestStreak, longestRange);
-  }
-
-  private String formatRange(LocalDate start, LocalDate end, DateTimeFormatter fmt) {
-    if (start == null || end == null)
-      return "No Activity";
-    if (start.isEqual(end))
-      return start.format(fmt);
-    return start.format(fmt) + " - " + end.format(fmt);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,263 @@
+package com.n33miaz.stats.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// vários tokens do GitHub atrás dos mesmos WebClients: cada chamada sai com o token que tem mais
+// orçamento no recurso (graphql, search, core), lido dos cabeçalhos X-RateLimit-* das respostas.
+// token esgotado (X-RateLimit-Remaining: 0, inclusive no 200 do GraphQL) fica de quarentena até o reset.
+// a repetição com outro token só vale para 403/429: o RATE_LIMITED do GraphQL vem com 200 e o erro no
+// corpo, que o filtro não lê; essa chamada falha como GraphQlException (transitória) e a próxima já sai
+// com outro token
+@Component
+public class GithubTokenPool implements ExchangeFilterFunction, MeterBinder {
+
+    // recursos com gauge de orçamento; outros (code_search, ...) são contabilizados mas não expostos
+    private static final List<String> KNOWN_RESOURCES = List.of("core", "graphql", "search");
+
+    // chamada barrada por limite é repetida uma vez, com o próximo token disponível
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final List<Token> tokens;
+
+    private Counter quarantines;
+
+    public GithubTokenPool(
+            @Value("${github.tokens:}") String tokens,
+            @Value("${github.token:}") String token) {
+        List<Token> parsed = new ArrayList<>();
+        String source = tokens.isBlank() ? token : tokens;
+        Arrays.stream(source.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .forEach(value -> parsed.add(new Token(parsed.size(), value)));
+        this.tokens = List.copyOf(parsed);
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (tokens.isEmpty()) {
+            return next.exchange(request);
+        }
+        return exchange(request, next, resourceOf(request.url()), Math.min(MAX_ATTEMPTS, tokens.size()));
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, String resource,
+            int attemptsLeft) {
+        return Mono.defer(() -> {
+            Budget budget = acquire(resource);
+            if (budget == null) {
+                return Mono.error(new RateLimitedException(resource, earliestReset(resource)));
+            }
+
+            ClientRequest authorized = ClientRequest.from(request)
+                    .headers(headers -> headers.setBearerAuth(budget.token.value))
+                    .build();
+
+            return next.exchange(authorized).flatMap(response -> {
+                boolean limited = update(budget.token, resource, response);
+                if (limited) {
+                    quarantined();
+                    // mesma chamada com o próximo token disponível
+                    if (attemptsLeft > 1) {
+                        return response.releaseBody()
+                                .then(exchange(request, next, resource, attemptsLeft - 1));
+                    }
+                }
+                return Mono.just(response);
+            });
+        });
+    }
+
+    // orçamento só muda sob o monitor do pool: reserva (acquire) e leitura da resposta (update) não se
+    // atropelam. token com mais orçamento restante no recurso, fora da quarentena
+    private synchronized Budget acquire(String resource) {
+        long now = Instant.now().getEpochSecond();
+        Budget best = null;
+        for (Token token : tokens) {
+            Budget budget = token.budget(resource);
+            budget.refresh(now);
+            if (budget.quarantinedUntil > now) {
+                continue;
+            }
+            if (best == null || budget.remaining > best.remaining) {
+                best = budget;
+            }
+        }
+        if (best != null) {
+            // reserva otimista: chamadas concorrentes se espalham antes de a resposta chegar
+            best.remaining--;
+        }
+        return best;
+    }
+
+    // devolve true quando a resposta indica limite estourado
+    private boolean update(Token token, String requested, ClientResponse response) {
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String resource = headers.getFirst("X-RateLimit-Resource");
+        Budget budget = token.budget(resource != null ? resource : requested);
+
+        long remaining = parse(headers.getFirst("X-RateLimit-Remaining"), -1);
+        long reset = parse(headers.getFirst("X-RateLimit-Reset"), 0);
+        long retryAfter = parse(headers.getFirst(HttpHeaders.RETRY_AFTER), -1);
+        int status = response.statusCode().value();
+        boolean limited = (status == HttpStatus.FORBIDDEN.value() || status == HttpStatus.TOO_MANY_REQUESTS.value())
+                && (remaining == 0 || retryAfter >= 0);
+
+        synchronized (this) {
+            if (remaining >= 0) {
+                budget.remaining = remaining;
+                budget.known = true;
+            }
+            if (reset > 0) {
+                budget.resetAt = reset;
+            }
+            long now = Instant.now().getEpochSecond();
+            if (limited && retryAfter >= 0) {
+                // limite secundário: vale o Retry-After, não o reset da janela
+                budget.quarantinedUntil = now + Math.max(retryAfter, 1);
+            } else if (remaining == 0) {
+                budget.quarantinedUntil = Math.max(budget.resetAt, now + 1);
+            }
+        }
+        return limited;
+    }
+
+    private static long parse(String value, long fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private long earliestReset(String resource) {
+        return tokens.stream()
+                .mapToLong(token -> token.budget(resource).quarantinedUntil)
+                .min()
+                .orElse(0);
+    }
+
+    private void quarantined() {
+        if (quarantines != null) {
+            quarantines.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Token token : tokens) {
+            for (String resource : KNOWN_RESOURCES) {
+                Budget budget = token.budget(resource);
+                Gauge.builder("github.ratelimit.remaining", budget, b -> b.known ? b.remaining : Double.NaN)
+                        .description("Orçamento restante do token no recurso do GitHub")
+                        .tags("token", "token-" + token.index, "resource", resource)
+                        .register(registry);
+            }
+        }
+        quarantines = Counter.builder("github.ratelimit.quarantines")
+                .description("Tokens do GitHub colocados em quarentena por esgotar o limite")
+                .register(registry);
+    }
+
+    static String resourceOf(URI url) {
+        String path = url.getPath();
+        if (path.endsWith("/graphql")) {
+            return "graphql";
+        }
+        if (path.startsWith("/search/")) {
+            return "search";
+        }
+        return "core";
+    }
+
+    // --- ESTADO POR TOKEN ---
+
+    private static final class Token {
+
+        final int index;
+        final String value;
+        final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+        Token(int index, String value) {
+            this.index = index;
+            this.value = value;
+        }
+
+        Budget budget(String resource) {
+            return budgets.computeIfAbsent(resource, r -> new Budget(this));
+        }
+    }
+
+    private static final class Budget {
+
+        final Token token;
+
+        // até a primeira resposta o orçamento é desconhecido e tratado como cheio
+        volatile long remaining = Long.MAX_VALUE;
+        volatile boolean known;
+        volatile long resetAt;
+        volatile long quarantinedUntil;
+
+        Budget(Token token) {
+            this.token = token;
+        }
+
+        // janela renovada: volta a ser desconhecido até a próxima resposta
+        void refresh(long now) {
+            if (resetAt > 0 && resetAt <= now) {
+                remaining = Long.MAX_VALUE;
+                known = false;
+                resetAt = 0;
+            }
+        }
+    }
+
+    // nenhum token com orçamento no recurso até resetAt (epoch em segundos)
+    public static class RateLimitedException extends RuntimeException {
+
+        private final String resource;
+        private final long resetAt;
+
+        public RateLimitedException(String resource, long resetAt) {
+            super("Limite do GitHub esgotado em todos os tokens (" + resource + ") até " + resetAt);
+            this.resource = resource;
+            this.resetAt = resetAt;
+        }
+
+        public String getResource() {
+            return resource;
+        }
+
+        public long getResetAt() {
+            return resetAt;
+        }
+    }
+}
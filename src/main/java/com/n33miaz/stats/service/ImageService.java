@@ -0,0 +1,366 @@
+package com.n33miaz.stats.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.n33miaz.stats.config.UpstreamClientFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+// baixa as capas, reduz para o tamanho em que aparecem no SVG e devolve o data URI pronto.
+// cache endereçado pelo hash da URL, compartilhado entre todos os usuários do Last.fm
+@Service
+public class ImageService implements MeterBinder {
+
+    // imagem padrão (estrela cinza) que o Last.fm devolve quando não tem capa
+    public static final String PLACEHOLDER_HASH = "2a96cbd8b46e442fc41c2b86b821562f";
+
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
+    private final UpstreamGuard upstreamGuard;
+
+    // decodificação/escala e disco; virtual threads quando habilitadas (SchedulerConfig)
+    private final Scheduler blockingScheduler;
+
+    private final WebClient webClient;
+
+    // pixels por unidade do SVG (2 = nítido em telas retina)
+    private final int density;
+    private final float jpegQuality;
+
+    // nível 1: memória, limitado pelo tamanho total dos data URIs (W-TinyLFU)
+    private final AsyncCache<String, String> thumbnails;
+
+    // URLs que falharam de fato (4xx, imagem vazia). circuito aberto, bulkhead cheio, 5xx e timeout
+    // devolvem vazio sem cache: a capa volta assim que o upstream se recupera
+    private final Cache<String, Boolean> failures;
+
+    // nível 2 (opcional): um arquivo por imagem processada
+    private final Path diskDir;
+    private final Duration diskTtl;
+    private final long diskMaxBytes;
+
+    public ImageService(
+            UpstreamClientFactory upstreamClientFactory,
+            UpstreamGuard upstreamGuard,
+            @Qualifier("blockingScheduler") Scheduler blockingScheduler,
+            @Value("${images.density:2}") int density,
+            @Value("${images.jpeg-quality:0.8}") float jpegQuality,
+            @Value("${images.cache.max-weight:33554432}") long maxWeight,
+            @Value("${images.cache.ttl:86400}") long ttlSeconds,
+            @Value("${images.cache.negative-ttl:300}") long negativeTtlSeconds,
+            @Value("${images.disk.dir:}") String diskDir,
+            @Value("${images.disk.ttl:604800}") long diskTtlSeconds,
+            @Value("${images.disk.max-bytes:268435456}") long diskMaxBytes) {
+        this.webClient = upstreamClientFactory.builder("images").build();
+        this.upstreamGuard = upstreamGuard;
+        this.blockingScheduler = blockingScheduler;
+        this.density = Math.max(1, density);
+        this.jpegQuality = Math.max(0.1f, Math.min(jpegQuality, 1f));
+        this.thumbnails = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, String dataUri) -> dataUri.length())
+                .expireAfter(new WriteExpiry<String, String>(Duration.ofSeconds(ttlSeconds)))
+                .recordStats()
+                .buildAsync();
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+        this.diskDir = diskDir.isBlank() ? null : Path.of(diskDir);
+        this.diskTtl = Duration.ofSeconds(diskTtlSeconds);
+        this.diskMaxBytes = diskMaxBytes;
+
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+                pruneDisk();
+            } catch (IOException e) {
+                System.err.println("Erro ao preparar cache de imagens em disco: " + e.getMessage());
+            }
+        }
+    }
+
+    // size: lado do quadrado em que a imagem é desenhada no card
+    public Mono<String> thumbnail(String url, int size) {
+        if (isPlaceholder(url)) {
+            return Mono.just("");
+        }
+
+        String key = contentKey(url, size);
+        if (failures.getIfPresent(key) != null) {
+            return Mono.just("");
+        }
+
+        return Mono.fromFuture(() -> thumbnails.get(key, (k, executor) -> readDisk(k)
+                .switchIfEmpty(Mono.defer(() -> download(url)
+                        .publishOn(blockingScheduler)
+                        .map(bytes -> toDataUri(bytes, size * density))
+                        .doOnNext(dataUri -> writeDisk(k, dataUri))))
+                .doOnNext(dataUri -> {
+                    // imagem vazia não ocupa o cache positivo
+                    if (dataUri.isEmpty()) {
+                        failures.put(k, Boolean.TRUE);
+                        thumbnails.synchronous().invalidate(k);
+                    }
+                })
+                // falha sai do cache antes de quem espera vê-la: a próxima chamada tenta de novo
+                .doOnError(e -> thumbnails.synchronous().invalidate(k))
+                .toFuture()), true)
+                .onErrorResume(e -> {
+                    if (isPermanent(e)) {
+                        failures.put(key, Boolean.TRUE);
+                    }
+                    return Mono.just("");
+                });
+    }
+
+    private static boolean isPermanent(Throwable error) {
+        return error instanceof WebClientResponseException e && e.getStatusCode().is4xxClientError();
+    }
+
+    // para o snapshot em disco
+    AsyncCache<String, String> cache() {
+        return thumbnails;
+    }
+
+    public static boolean isPlaceholder(String url) {
+        return url == null || url.isEmpty() || url.contains(PLACEHOLDER_HASH);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, thumbnails, "image-thumbnails");
+        Gauge.builder("images.failures", failures, Cache::estimatedSize)
+                .description("URLs de imagem em cache negativo")
+                .register(registry);
+    }
+
+    // mesma URL no mesmo tamanho => mesmo endereço, independente do usuário
+    static String contentKey(String url, int size) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + "-" + size;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // --- DISCO ---
+
+    private Mono<String> readDisk(String key) {
+        if (diskDir == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> {
+            Path file = diskDir.resolve(key);
+            if (!Files.exists(file)) {
+                return null;
+            }
+            Instant modified = Files.getLastModifiedTime(file).toInstant();
+            if (modified.plus(diskTtl).isBefore(Instant.now())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return Files.readString(file, StandardCharsets.US_ASCII);
+        })
+                .subscribeOn(blockingScheduler)
+                .onErrorResume(e -> {
+                    System.err.println("Erro ao ler imagem do disco: " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private void writeDisk(String key, String dataUri) {
+        if (diskDir == null || dataUri.isEmpty()) {
+            return;
+        }
+        try {
+            // grava em temporário e move: leitores nunca veem arquivo pela metade
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            Files.writeString(tmp, dataUri, StandardCharsets.US_ASCII);
+            Files.move(tmp, diskDir.resolve(key), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar imagem no disco: " + e.getMessage());
+        }
+    }
+
+    // na subida: remove vencidos e, acima do limite, os mais antigos
+    private void pruneDisk() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(diskDir)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        }
+
+        Instant cutoff = Instant.now().minus(diskTtl);
+        files.sort(Comparator.comparing(ImageService::modifiedTime).reversed());
+
+        long total = 0;
+        for (Path file : files) {
+            total += Files.size(file);
+            if (total > diskMaxBytes || modifiedTime(file).toInstant().isBefore(cutoff)
+                    || file.getFileName().toString().endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static FileTime modifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    // --- PROCESSAMENTO ---
+
+    private Mono<byte[]> download(String url) {
+        return upstreamGuard.protect("images", upstreamMetrics.timed("lastfm-image", "download",
+                webClient.get().uri(url).retrieve().bodyToMono(byte[].class)))
+                .defaultIfEmpty(new byte[0]);
+    }
+
+    // imagens que o ImageIO não lê (ex.: WebP) seguem como vieram
+    String toDataUri(byte[] source, int maxPixels) {
+        if (source.length == 0) {
+            return "";
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(source));
+            if (image == null) {
+                return encodeOriginal(source);
+            }
+            if (image.getWidth() <= maxPixels && image.getHeight() <= maxPixels) {
+                return encodeOriginal(source);
+            }
+
+            BufferedImage scaled = downscale(image, maxPixels);
+            if (scaled.getColorModel().hasAlpha()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(scaled, "png", out);
+                return "data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray());
+            }
+            return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(encodeJpeg(scaled));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro ao redimensionar imagem: " + e.getMessage());
+            return encodeOriginal(source);
+        }
+    }
+
+    // original sem reencode: o tipo vem dos bytes, não da suposição de que capa é JPEG
+    private static String encodeOriginal(byte[] source) {
+        return "data:" + mimeType(source) + ";base64," + Base64.getEncoder().encodeToString(source);
+    }
+
+    static String mimeType(byte[] source) {
+        if (startsWith(source, 0, (byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G')) {
+            return "image/png";
+        }
+        if (startsWith(source, 0, (byte) 'G', (byte) 'I', (byte) 'F', (byte) '8')) {
+            return "image/gif";
+        }
+        if (startsWith(source, 0, (byte) 'R', (byte) 'I', (byte) 'F', (byte) 'F')
+                && startsWith(source, 8, (byte) 'W', (byte) 'E', (byte) 'B', (byte) 'P')) {
+            return "image/webp";
+        }
+        // JPEG (FF D8 FF) e qualquer outra coisa: o Last.fm serve JPEG por padrão
+        return "image/jpeg";
+    }
+
+    private static boolean startsWith(byte[] source, int offset, byte... magic) {
+        if (source.length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (source[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // reduz pela metade até chegar perto do alvo: bilinear direto em 300px -> 64px serrilha
+    private static BufferedImage downscale(BufferedImage image, int maxPixels) {
+        double ratio = Math.min((double) maxPixels / image.getWidth(), (double) maxPixels / image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
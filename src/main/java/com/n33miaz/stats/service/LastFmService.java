@@ -1,6 +1,8 @@
 package com.n33miaz.stats.service;
 
+import com.n33miaz.stats.config.UpstreamClientFactory;
 import com.n33miaz.stats.dto.LastFmResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -9,8 +11,8 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class LastFmService {
@@ -20,22 +22,50 @@ public class LastFmService {
 
     private final WebClient webClient;
 
-    private static final String PLACEHOLDER_HASH = "2a96cbd8b46e442fc41c2b86b821562f";
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
 
-    public LastFmService() {
-        this.webClient = WebClient.builder()
-                .baseUrl("http://ws.audioscrobbler.com/2.0/")
-                .build();
+    @Autowired
+    private UpstreamGuard upstreamGuard;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ArtistImageStore artistImageStore;
+
+    // prazos por chamada: uma resposta lenta vira dado ausente, não card atrasado
+    @Value("${lastfm.call-timeout-ms:3000}")
+    private long callTimeoutMs;
+
+    @Value("${lastfm.image-timeout-ms:1500}")
+    private long imageTimeoutMs;
+
+    @Value("${lastfm.concurrency:3}")
+    private int concurrency;
+
+    // lado das imagens no SVG: capa da faixa atual e itens das listas
+    private static final int COVER_IMAGE_SIZE = 110;
+    private static final int LIST_IMAGE_SIZE = 32;
+
+    private static final TrackInfo NO_TRACK = new TrackInfo("No Track", "Unknown", "", "", false, "Never", 0);
+
+    public LastFmService(UpstreamClientFactory upstreamClientFactory) {
+        this.webClient = upstreamClientFactory.builder("lastfm").build();
     }
 
     public Mono<MusicDashboardData> getDashboardData(String username, String period) {
         // System.out.println(">>> Iniciando busca de dados para usuário: " + username + " | Periodo: " + period);
 
+        // as três seções em paralelo; a que estourar o prazo (ou achar o circuito aberto) sai vazia
+        // e o card é montado com o resto
         Mono<TrackInfo> recentTrackMono = getRecentTrack(username)
-                .flatMap(track -> getTrackPlayCount(username, track));
+                .onErrorResume(LastFmService::degradable, e -> Mono.just(NO_TRACK));
 
-        Mono<List<SimpleItem>> topArtistsMono = getTopArtists(username, period);
-        Mono<List<SimpleItem>> topAlbumsMono = getTopAlbums(username, period);
+        Mono<List<SimpleItem>> topArtistsMono = getTopArtists(username, period)
+                .onErrorResume(LastFmService::degradable, e -> Mono.just(List.of()));
+        Mono<List<SimpleItem>> topAlbumsMono = getTopAlbums(username, period)
+                .onErrorResume(LastFmService::degradable, e -> Mono.just(List.of()));
 
         return Mono.zip(recentTrackMono, topArtistsMono, topAlbumsMono)
                 .map(tuple -> new MusicDashboardData(tuple.getT1(), tuple.getT2(), tuple.getT3()));
@@ -44,45 +74,63 @@ public class LastFmService {
 
     // --- ARTISTAS ---
     private Mono<List<SimpleItem>> getTopArtists(String username, String period) {
-        return webClient.get()
-                .uri(uri -> uri.queryParam("method", "user.gettopartists")
-                        .queryParam("user", username)
-                        .queryParam("api_key", apiKey)
-                        .queryParam("period", period)
-                        .queryParam("format", "json")
-                        .queryParam("limit", "3").build())
-                .retrieve()
-                .bodyToMono(LastFmResponse.class)
+        return guarded("user.gettopartists", webClient.get()
+                        .uri(uri -> uri.queryParam("method", "user.gettopartists")
+                                .queryParam("user", username)
+                                .queryParam("api_key", apiKey)
+                                .queryParam("period", period)
+                                .queryParam("format", "json")
+                                .queryParam("limit", "3").build())
+                        .retrieve()
+                        .bodyToMono(LastFmResponse.class))
+                .timeout(callTimeout())
                 .flatMapMany(response -> Flux.fromIterable(response.topartists().artist()))
-                .concatMap(artist -> {
+                // imagens resolvidas em paralelo, mantendo a ordem do ranking
+                .flatMapSequential(artist -> {
                     String artistName = artist.name();
                     String initialImgUrl = getImageUrl(artist.images());
 
                     Mono<String> imageDownloadMono;
 
                     if (isInvalidImage(initialImgUrl)) {
-                        imageDownloadMono = fetchArtistTopAlbumImage(artistName)
-                                .flatMap(this::downloadImageAsBase64);
+                        imageDownloadMono = resolveArtistImage(artistName)
+                                .flatMap(url -> downloadImage(url, LIST_IMAGE_SIZE));
                     } else {
-                        imageDownloadMono = downloadImageAsBase64(initialImgUrl);
+                        imageDownloadMono = downloadImage(initialImgUrl, LIST_IMAGE_SIZE);
                     }
 
-                    return imageDownloadMono
+                    return withDeadline(imageDownloadMono, imageTimeout())
                             .map(base64 -> new SimpleItem(artistName, artist.playcount() + " plays", base64));
-                })
+                }, concurrency)
                 .collectList();
     }
 
+    // artistas conhecidos não repetem o artist.gettopalbums. a busca é assinada à parte (como em
+    // CardDeadlines.optional): o prazo da imagem não a cancela e o resultado ainda entra no ArtistImageStore
+    private Mono<String> resolveArtistImage(String artistName) {
+        return Mono.defer(() -> {
+            String known = artistImageStore.get(artistName);
+            if (known != null) {
+                return Mono.just(known);
+            }
+
+            return Mono.fromFuture(fetchArtistTopAlbumImage(artistName)
+                    .doOnNext(url -> artistImageStore.put(artistName, url))
+                    .onErrorResume(e -> Mono.just(""))
+                    .toFuture(), true);
+        });
+    }
+
     private Mono<String> fetchArtistTopAlbumImage(String artistName) {
-        return webClient.get()
-                .uri(uri -> uri.queryParam("method", "artist.gettopalbums")
-                        .queryParam("artist", artistName)
-                        .queryParam("api_key", apiKey)
-                        .queryParam("format", "json")
-                        .queryParam("autocorrect", "1")
-                        .queryParam("limit", "1").build())
-                .retrieve()
-                .bodyToMono(LastFmResponse.class)
+        return guarded("artist.gettopalbums", webClient.get()
+                        .uri(uri -> uri.queryParam("method", "artist.gettopalbums")
+                                .queryParam("artist", artistName)
+                                .queryParam("api_key", apiKey)
+                                .queryParam("format", "json")
+                                .queryParam("autocorrect", "1")
+                                .queryParam("limit", "1").build())
+                        .retrieve()
+                        .bodyToMono(LastFmResponse.class))
                 .map(response -> {
                     if (response.topalbums() != null && response.topalbums().album() != null
                             && !response.topalbums().album().isEmpty()) {
@@ -90,83 +138,79 @@ public class LastFmService {
                         return albumCover;
                     }
                     return "";
-                })
-                .onErrorResume(e -> {
-                    return Mono.just("");
                 });
     }
 
     // --- RECENT TRACK ---
     private Mono<TrackInfo> getRecentTrack(String username) {
-        return webClient.get()
-                .uri(uri -> uri.queryParam("method", "user.getrecenttracks")
-                        .queryParam("user", username)
-                        .queryParam("api_key", apiKey)
-                        .queryParam("format", "json")
-                        .queryParam("limit", "1").build())
-                .retrieve()
-                .bodyToMono(LastFmResponse.class)
+        return guarded("user.getrecenttracks", webClient.get()
+                        .uri(uri -> uri.queryParam("method", "user.getrecenttracks")
+                                .queryParam("user", username)
+                                .queryParam("api_key", apiKey)
+                                .queryParam("format", "json")
+                                .queryParam("limit", "1").build())
+                        .retrieve()
+                        .bodyToMono(LastFmResponse.class))
+                .timeout(callTimeout())
                 .flatMap(response -> {
                     if (response.recenttracks() == null || response.recenttracks().track().isEmpty())
-                        return Mono.just(new TrackInfo("No Track", "Unknown", "", "", false, "Never", 0));
+                        return Mono.just(NO_TRACK);
 
                     var track = response.recenttracks().track().get(0);
                     boolean isPlaying = track.attr() != null && "true".equals(track.attr().nowplaying());
                     String imageUrl = getImageUrl(track.images());
 
-                    if (isInvalidImage(imageUrl)) {
-                        System.out.println("   [Track] Capa da música atual inválida. Tentando fallback...");
-                    }
-
                     String timeAgo = isPlaying ? "Now Playing" : calculateTimeAgo(track.date());
 
-                    return downloadImageAsBase64(imageUrl)
-                            .map(imgBase64 -> new TrackInfo(
+                    // capa e contagem de plays não dependem uma da outra
+                    return Mono.zip(
+                            withDeadline(downloadImage(imageUrl, COVER_IMAGE_SIZE), imageTimeout()),
+                            getTrackPlayCount(username, track.name(), track.artist().name()))
+                            .map(tuple -> new TrackInfo(
                                     track.name(),
                                     track.artist().name(),
                                     track.album().name(),
-                                    imgBase64,
+                                    tuple.getT1(),
                                     isPlaying,
                                     timeAgo,
-                                    0));
+                                    tuple.getT2()));
                 });
     }
 
     // --- ALBUMS ---
     private Mono<List<SimpleItem>> getTopAlbums(String username, String period) {
-        return webClient.get()
-                .uri(uri -> uri.queryParam("method", "user.gettopalbums")
-                        .queryParam("user", username)
-                        .queryParam("api_key", apiKey)
-                        .queryParam("period", period)
-                        .queryParam("format", "json")
-                        .queryParam("limit", "3").build())
-                .retrieve()
-                .bodyToMono(LastFmResponse.class)
+        return guarded("user.gettopalbums", webClient.get()
+                        .uri(uri -> uri.queryParam("method", "user.gettopalbums")
+                                .queryParam("user", username)
+                                .queryParam("api_key", apiKey)
+                                .queryParam("period", period)
+                                .queryParam("format", "json")
+                                .queryParam("limit", "3").build())
+                        .retrieve()
+                        .bodyToMono(LastFmResponse.class))
+                .timeout(callTimeout())
                 .flatMapMany(response -> Flux.fromIterable(response.topalbums().album()))
                 .flatMapSequential(album -> {
                     String imgUrl = getImageUrl(album.images());
 
-                    return downloadImageAsBase64(imgUrl)
+                    return withDeadline(downloadImage(imgUrl, LIST_IMAGE_SIZE), imageTimeout())
                             .map(base64 -> new SimpleItem(album.name(), album.artist().name(), base64,
                                     album.playcount() + " plays"));
-                })
+                }, concurrency)
                 .collectList();
     }
 
-    private Mono<TrackInfo> getTrackPlayCount(String username, TrackInfo track) {
-        if (track.name().equals("No Track"))
-            return Mono.just(track);
-
-        return webClient.get()
-                .uri(uri -> uri.queryParam("method", "track.getInfo")
-                        .queryParam("user", username)
-                        .queryParam("artist", track.artist())
-                        .queryParam("track", track.name())
-                        .queryParam("api_key", apiKey)
-                        .queryParam("format", "json").build())
-                .retrieve()
-                .bodyToMono(LastFmResponse.class)
+    private Mono<Integer> getTrackPlayCount(String username, String trackName, String artistName) {
+        return guarded("track.getInfo", webClient.get()
+                        .uri(uri -> uri.queryParam("method", "track.getInfo")
+                                .queryParam("user", username)
+                                .queryParam("artist", artistName)
+                                .queryParam("track", trackName)
+                                .queryParam("api_key", apiKey)
+                                .queryParam("format", "json").build())
+                        .retrieve()
+                        .bodyToMono(LastFmResponse.class))
+                .timeout(callTimeout())
                 .map(response -> {
                     int plays = 0;
                     if (response.track() != null && response.track().userplaycount() != null) {
@@ -175,16 +219,38 @@ public class LastFmService {
                         } catch (Exception e) {
                         }
                     }
-                    return new TrackInfo(track.name(), track.artist(), track.album(), track.imageBase64(),
-                            track.isPlaying(), track.timeAgo(), plays);
+                    return plays;
                 })
-                .onErrorResume(e -> Mono.just(track));
+                .onErrorResume(e -> Mono.just(0));
     }
 
     // --- UTILS ---
 
+    private <T> Mono<T> guarded(String method, Mono<T> call) {
+        return upstreamGuard.protect("lastfm", upstreamMetrics.timed("lastfm", method, call));
+    }
+
+    private static boolean degradable(Throwable error) {
+        return error instanceof TimeoutException || error instanceof UpstreamGuard.UnavailableException;
+    }
+
+    // imagem que não chega no prazo sai sem capa; o download (ImageService.thumbnail) e a busca da capa
+    // do artista (resolveArtistImage) continuam e alimentam os caches
+    private Mono<String> withDeadline(Mono<String> image, Duration deadline) {
+        return image.timeout(deadline)
+                .onErrorResume(TimeoutException.class, e -> Mono.just(""));
+    }
+
+    private Duration callTimeout() {
+        return Duration.ofMillis(callTimeoutMs);
+    }
+
+    private Duration imageTimeout() {
+        return Duration.ofMillis(imageTimeoutMs);
+    }
+
     private boolean isInvalidImage(String url) {
-        return url == null || url.isEmpty() || url.contains(PLACEHOLDER_HASH);
+        return ImageService.isPlaceholder(url);
     }
 
     private String getImageUrl(List<LastFmResponse.Image> images) {
@@ -216,17 +282,12 @@ public class LastFmService {
         }
     }
 
-    private Mono<String> downloadImageAsBase64(String url) {
+    // já reduzida para o tamanho em que aparece no card (ver SvgService)
+    private Mono<String> downloadImage(String url, int size) {
         if (isInvalidImage(url))
             return Mono.just("");
 
-        // System.out.println("      -> Baixando imagem: " + url);
-        return webClient.get().uri(url).retrieve().bodyToMono(byte[].class)
-                .map(bytes -> "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes))
-                .onErrorResume(e -> {
-                    System.out.println("      [Erro Download] Falha ao baixar imagem: " + url);
-                    return Mono.just("");
-                });
+        return imageService.thumbnail(url, size);
     }
 
     // --- RECORDS ---
@@ -0,0 +1,47 @@
+package com.n33miaz.stats.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Component
+public class RequestCoalescer implements MeterBinder {
+
+    private final Map<FlightKey, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    // chamadas idênticas em andamento compartilham o mesmo Mono (single-flight)
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String upstream, String query, Object variables, Supplier<Mono<T>> call) {
+        FlightKey key = new FlightKey(upstream, query, variables);
+        return Mono.defer(() -> (Mono<T>) inFlight.computeIfAbsent(key, k -> {
+            // remoção condicional: o doFinally atrasado de um voo antigo não derruba o voo novo da mesma chave
+            AtomicReference<Mono<T>> flight = new AtomicReference<>();
+            Mono<T> shared = call.get()
+                    .doFinally(signal -> inFlight.remove(k, flight.get()))
+                    .share();
+            flight.set(shared);
+            return shared;
+        }));
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("upstream.inflight", inFlight, Map::size)
+                .description("Chamadas externas distintas em andamento")
+                .register(registry);
+    }
+
+    private record FlightKey(String upstream, String query, Object variables) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.dto.ContributionCalendar;
+import com.n33miaz.stats.dto.StreakStatsDto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// streaks calculados direto sobre o int[] do calendário, sem objetos por dia
+final class StreakCalculator {
+
+  private static final DateTimeFormatter RANGE_FMT = DateTimeFormatter.ofPattern("MMM dd", Locale.US);
+
+  private StreakCalculator() {
+  }
+
+  static StreakStatsDto calculate(ContributionCalendar calendar, LocalDate today) {
+    int size = calendar.size();
+    long start = calendar.startEpochDay();
+    long todayDay = today.toEpochDay();
+    long yesterdayDay = todayDay - 1;
+
+    long yearStart = ContributionCalendar.epochDay(today.getYear(), 1, 1);
+    long yearEnd = ContributionCalendar.epochDay(today.getYear() + 1, 1, 1) - 1;
+
+    // total do ano + maior streak em uma única passada
+    int totalCommitsYear = 0;
+    int longestStreak = 0;
+    int tempStreak = 0;
+    int tempStart = -1;
+    int longestStart = -1;
+    int longestEnd = -1;
+
+    for (int i = 0; i < size; i++) {
+      int count = calendar.countAt(i);
+      long day = start + i;
+
+      if (day >= yearStart && day <= yearEnd) {
+        totalCommitsYear += count;
+      }
+
+      if (count > 0) {
+        if (tempStreak == 0) {
+          tempStart = i;
+        }
+        tempStreak++;
+
+        if (tempStreak > longestStreak) {
+          longestStreak = tempStreak;
+          longestStart = tempStart;
+          longestEnd = i;
+        }
+      } else {
+        tempStreak = 0;
+      }
+    }
+
+    // streak atual: ativo se houve contribuição hoje ou ontem
+    boolean streakActive = false;
+
+    if (size > 0) {
+      long lastDay = start + size - 1;
+
+      if ((lastDay == todayDay || lastDay == yesterdayDay) && calendar.countAt(size - 1) > 0) {
+        streakActive = true;
+      } else if (size > 1 && lastDay - 1 == yesterdayDay && calendar.countAt(size - 2) > 0) {
+        streakActive = true;
+      }
+    }
+
+    int currentStreak = 0;
+    int currentStart = -1;
+    int currentEnd = -1;
+
+    if (streakActive) {
+      for (int i = size - 1; i >= 0; i--) {
+        if (calendar.countAt(i) > 0) {
+          currentStreak++;
+          currentStart = i;
+          if (currentEnd < 0) {
+            currentEnd = i;
+          }
+        } else if (start + i != todayDay) {
+          break;
+        }
+      }
+    }
+
+    String currentRange = formatRange(start, currentStart, currentEnd);
+    String longestRange = formatRange(start, longestStart, longestEnd);
+
+    return new StreakStatsDto(totalCommitsYear, currentStreak, currentRange, longestStreak, longestRange);
+  }
+
+  private static String formatRange(long startEpochDay, int startIndex, int endIndex) {
+    if (startIndex < 0 || endIndex < 0)
+      return "No Activity";
+
+    String start = LocalDate.ofEpochDay(startEpochDay + startIndex).format(RANGE_FMT);
+    if (startIndex == endIndex)
+      return start;
+    return start + " - " + LocalDate.ofEpochDay(startEpochDay + endIndex).format(RANGE_FMT);
+  }
+}
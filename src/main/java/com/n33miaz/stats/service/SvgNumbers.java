@@ -0,0 +1,75 @@
+package com.n33miaz.stats.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// números com casas fixas direto no StringBuilder, com a mesma saída de
+// String.format(Locale.US, "%.Nf") mas sem Formatter, boxing ou String intermediária
+public final class SvgNumbers {
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+
+    // acima disso (ou perto de x.5) o erro do double pode decidir o arredondamento
+    private static final double FAST_LIMIT = 1e9;
+    private static final double HALF_MARGIN = 1e-6;
+
+    private SvgNumbers() {
+    }
+
+    public static String fixed(double value, int precision) {
+        return appendFixed(new StringBuilder(16), value, precision).toString();
+    }
+
+    public static StringBuilder appendFixed(StringBuilder out, double value, int precision) {
+        if (precision < 0 || precision >= POW10.length) {
+            throw new IllegalArgumentException("Precisão não suportada: " + precision);
+        }
+        if (Double.isNaN(value)) {
+            return out.append("NaN");
+        }
+        if (Double.isInfinite(value)) {
+            return out.append(value > 0 ? "Infinity" : "-Infinity");
+        }
+
+        // o Formatter mantém o sinal de -0.0 e de negativos que arredondam para zero
+        if (Double.doubleToRawLongBits(value) < 0) {
+            out.append('-');
+            value = -value;
+        }
+
+        long pow = POW10[precision];
+        double scaled = value * pow;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+
+        if (scaled >= FAST_LIMIT || Math.abs(fraction - 0.5) < HALF_MARGIN) {
+            // mesmo critério do Formatter: HALF_UP sobre a representação decimal mais curta
+            return out.append(BigDecimal.valueOf(value).setScale(precision, RoundingMode.HALF_UP).toPlainString());
+        }
+
+        long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+        out.append(rounded / pow);
+        if (precision > 0) {
+            out.append('.');
+            appendPadded(out, rounded % pow, precision);
+        }
+        return out;
+    }
+
+    // equivalente a %0Nd
+    public static StringBuilder appendPadded(StringBuilder out, long value, int width) {
+        if (value < 0) {
+            out.append('-');
+            width--;
+            value = -value;
+        }
+        for (long limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                out.append('0');
+            }
+        }
+        return out.append(value);
+    }
+}
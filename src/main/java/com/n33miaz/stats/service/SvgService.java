@@ -17,20 +17,88 @@ public class SvgService {
     private static final int REPO_MAX_CHARS_PER_LINE = 55;
 
     // --- TESTE ---
+    private static final SvgTemplate TEST_SVG = SvgTemplate.compile("""
+            <svg width="400" height="100" xmlns="http://www.w3.org/2000/svg">
+                <rect width="100%%" height="100%%" fill="#0D1117" rx="10" ry="10"/>
+                <text x="50%%" y="50%%" dominant-baseline="middle" text-anchor="middle"
+                      fill="#762075" font-family="Segoe UI, Helvetica, Arial, sans-serif" font-weight="bold" font-size="24">
+                    %s
+                </text>
+            </svg>
+            """);
+
     public String generateTestSvg(String text) {
-        return """
-                <svg width="400" height="100" xmlns="http://www.w3.org/2000/svg">
-                    <rect width="100%%" height="100%%" fill="#0D1117" rx="10" ry="10"/>
-                    <text x="50%%" y="50%%" dominant-baseline="middle" text-anchor="middle"
-                          fill="#762075" font-family="Segoe UI, Helvetica, Arial, sans-serif" font-weight="bold" font-size="24">
-                        %s
-                    </text>
-                </svg>
-                """
-                .formatted(escapeHtml(text));
+        return TEST_SVG.writer()
+                .str(escapeHtml(text))
+                .render();
     }
 
     // --- CARD DE REPOSITÓRIO (PIN) ---
+    private static final SvgTemplate REPO_DESC_LINE = SvgTemplate.compile(
+            "<text x=\"200\" y=\"%d\" text-anchor=\"middle\" class=\"desc\">%s</text>");
+
+    private static final SvgTemplate REPO_CARD = SvgTemplate.compile("""
+            <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
+                <style>
+                    .header { font: 700 %dpx 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                    .desc { font: 400 13px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                    .stat { font: 600 12px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                    .icon { fill: #%s; }
+
+                    .fade-in { opacity: 0; animation: fadeIn 0.6s ease-out forwards; }
+                    .d-1 { animation-delay: 0.1s; }
+                    .d-2 { animation-delay: 0.2s; }
+                    .d-3 { animation-delay: 0.3s; }
+
+                    @keyframes fadeIn {
+                        from { opacity: 0; transform: translateY(10px); }
+                        to { opacity: 1; transform: translateY(0); }
+                    }
+                </style>
+
+                <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
+
+                <!-- HEADER -->
+                <g class="fade-in d-1">
+                    <text x="200" y="%d" text-anchor="middle" class="header">%s</text>
+                </g>
+
+                <!-- DESCRIÇÃO -->
+                <g class="fade-in d-2">
+                    %s
+                </g>
+
+                <!-- FOOTER -->
+                <g class="fade-in d-3">
+                    <!-- ESQUERDA -->
+                    <circle cx="30" cy="%d" r="5" fill="%s" />
+                    <text x="40" y="%d" class="stat">%s</text>
+
+                    <g transform="translate(%d, %d)">
+                        <svg class="icon" y="-11" viewBox="0 0 16 16" width="14" height="14">
+                            <path fill-rule="evenodd" d="M10.5 7.75a2.5 2.5 0 11-5 0 2.5 2.5 0 015 0zm1.43.75a4.002 4.002 0 01-7.86 0H.75a.75.75 0 110-1.5h3.32a4.001 4.001 0 017.86 0h3.32a.75.75 0 110 1.5h-3.32z"/>
+                        </svg>
+                        <text x="18" class="stat">%s</text>
+                    </g>
+
+                    <!-- DIREITA -->
+                    <g transform="translate(365, %d)">
+                        <text x="10" text-anchor="end" class="stat">%s</text>
+                        <svg class="icon" x="-15" y="-11" viewBox="0 0 16 16" width="14" height="14">
+                            <path fill-rule="evenodd" d="M5 3.25a.75.75 0 11-1.5 0 .75.75 0 011.5 0zm0 2.122a2.25 2.25 0 10-1.5 0v.878A2.25 2.25 0 005.75 8.5h1.5v2.128a2.251 2.251 0 101.5 0V8.5h1.5a2.25 2.25 0 002.25-2.25v-.878a2.25 2.25 0 10-1.5 0v.878a.75.75 0 01-.75.75h-4.5A.75.75 0 015 6.25v-.878zm3.75 7.378a.75.75 0 11-1.5 0 .75.75 0 011.5 0zm3-8.75a.75.75 0 100-1.5.75.75 0 000 1.5z"/>
+                        </svg>
+
+                        <g transform="translate(-45, 0)">
+                            <text x="12" text-anchor="end" class="stat">%s</text>
+                            <svg class="icon" x="-14" y="-11" viewBox="0 0 16 16" width="14" height="14">
+                                <path fill-rule="evenodd" d="M8 .25a.75.75 0 01.673.418l1.882 3.815 4.21.612a.75.75 0 01.416 1.279l-3.046 2.97.719 4.192a.75.75 0 01-1.088.791L8 12.347l-3.766 1.98a.75.75 0 01-1.088-.79l.72-4.194L.818 6.374a.75.75 0 01.416-1.28l4.21-.611L7.327.668A.75.75 0 018 .25z"/>
+                            </svg>
+                        </g>
+                    </g>
+                </g>
+            </svg>
+            """);
+
     public String generateRepoCard(GithubResponse.Repository repo, Map<String, String> colors,
             boolean hideBorder,
             boolean showDescription) {
@@ -90,87 +158,104 @@ public class SvgService {
         if (shouldRenderDesc) {
             for (int i = 0; i < descLines.size(); i++) {
                 int lineY = descStartY + (i * descLineHeight);
-                descSvg.append(String.format(
-                        "<text x=\"200\" y=\"%d\" text-anchor=\"middle\" class=\"desc\">%s</text>",
-                        lineY,
-                        escapeHtml(descLines.get(i))));
+                descSvg.append(REPO_DESC_LINE.writer()
+                                .num(lineY)
+                                .str(escapeHtml(descLines.get(i)))
+                                .render());
             }
         }
 
-        return """
-                <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
-                    <style>
-                        .header { font: 700 %dpx 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                        .desc { font: 400 13px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                        .stat { font: 600 12px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                        .icon { fill: #%s; }
-
-                        .fade-in { opacity: 0; animation: fadeIn 0.6s ease-out forwards; }
-                        .d-1 { animation-delay: 0.1s; }
-                        .d-2 { animation-delay: 0.2s; }
-                        .d-3 { animation-delay: 0.3s; }
-
-                        @keyframes fadeIn {
-                            from { opacity: 0; transform: translateY(10px); }
-                            to { opacity: 1; transform: translateY(0); }
-                        }
-                    </style>
-
-                    <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
-
-                    <!-- HEADER -->
-                    <g class="fade-in d-1">
-                        <text x="200" y="%d" text-anchor="middle" class="header">%s</text>
-                    </g>
+        return REPO_CARD.writer()
+                .num(REPO_CARD_WIDTH)
+                .num(totalHeight)
+                .num(REPO_CARD_WIDTH)
+                .num(totalHeight)
+                .num(headerFontSize)
+                .str(titleColor)
+                .str(textColor)
+                .str(textColor)
+                .str(iconColor)
+                .num(REPO_CARD_WIDTH - 1)
+                .str(bgColor)
+                .str(borderColor)
+                .str(hideBorder ? "0" : "1")
+                .num(headerY)
+                .str(escapeHtml(repo.name()))
+                .str(descSvg)
+                .num(footerY - 5)
+                .str(langColor)
+                .num(footerY)
+                .str(escapeHtml(langName))
+                .num(40 + estimateTextWidth(langName) + 15)
+                .num(footerY)
+                .str(commits)
+                .num(footerY)
+                .str(forks)
+                .str(stars)
+                .render();
+    }
 
-                    <!-- DESCRIÇÃO -->
-                    <g class="fade-in d-2">
-                        %s
-                    </g>
+    // --- CARD DE ESTATÍSTICAS ---
+    private static final SvgTemplate STATS_TIME_BADGE = SvgTemplate.compile("""
+            <g transform="translate(%d, %d)">
+                <rect x="-60" y="0" width="120" height="22" rx="11" fill="#%s" fill-opacity="0.15"/>
+                <text x="0" y="15" text-anchor="middle" font-size="11" font-weight="600" fill="#%s">%s</text>
+            </g>
+            """);
+
+    private static final SvgTemplate STATS_CARD = SvgTemplate.compile("""
+            <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
+                <style>
+                    .header { font: 600 18px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; animation: fadeIn 0.8s ease-in-out forwards; }
+                    .stat-label { font: 600 14px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                    .stat-value { font: 600 14px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                    .icon { fill: #%s; }
+                    .rank-text { font: 800 24px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; dominant-baseline: central; text-anchor: middle; }
+
+                    .fade-in { opacity: 0; animation: fadeIn 0.5s ease-in-out forwards; }
+                    .delay-1 { animation-delay: 0.1s; }
+                    .delay-2 { animation-delay: 0.2s; }
+                    .delay-3 { animation-delay: 0.3s; }
+                    .delay-4 { animation-delay: 0.4s; }
+                    .delay-5 { animation-delay: 0.5s; }
+
+                    @keyframes fadeIn {
+                        from { opacity: 0; transform: translateX(-10px); }
+                        to { opacity: 1; transform: translateX(0); }
+                    }
 
-                    <!-- FOOTER -->
-                    <g class="fade-in d-3">
-                        <!-- ESQUERDA -->
-                        <circle cx="30" cy="%d" r="5" fill="%s" />
-                        <text x="40" y="%d" class="stat">%s</text>
+                    .rank-circle {
+                        stroke-dasharray: 250;
+                        stroke-dashoffset: 250;
+                        animation: animateRank 1s ease-in-out forwards 0.5s;
+                    }
+                    @keyframes animateRank { to { stroke-dashoffset: %f; } }
+                </style>
 
-                        <g transform="translate(%d, %d)">
-                            <svg class="icon" y="-11" viewBox="0 0 16 16" width="14" height="14">
-                                <path fill-rule="evenodd" d="M10.5 7.75a2.5 2.5 0 11-5 0 2.5 2.5 0 015 0zm1.43.75a4.002 4.002 0 01-7.86 0H.75a.75.75 0 110-1.5h3.32a4.001 4.001 0 017.86 0h3.32a.75.75 0 110 1.5h-3.32z"/>
-                            </svg>
-                            <text x="18" class="stat">%s</text>
-                        </g>
+                <!-- Fundo -->
+                <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
 
-                        <!-- DIREITA -->
-                        <g transform="translate(365, %d)">
-                            <text x="10" text-anchor="end" class="stat">%s</text>
-                            <svg class="icon" x="-15" y="-11" viewBox="0 0 16 16" width="14" height="14">
-                                <path fill-rule="evenodd" d="M5 3.25a.75.75 0 11-1.5 0 .75.75 0 011.5 0zm0 2.122a2.25 2.25 0 10-1.5 0v.878A2.25 2.25 0 005.75 8.5h1.5v2.128a2.251 2.251 0 101.5 0V8.5h1.5a2.25 2.25 0 002.25-2.25v-.878a2.25 2.25 0 10-1.5 0v.878a.75.75 0 01-.75.75h-4.5A.75.75 0 015 6.25v-.878zm3.75 7.378a.75.75 0 11-1.5 0 .75.75 0 011.5 0zm3-8.75a.75.75 0 100-1.5.75.75 0 000 1.5z"/>
-                            </svg>
+                <!-- Stats -->
+                <g transform="translate(%d, %d)">
+                    %s
+                </g>
 
-                            <g transform="translate(-45, 0)">
-                                <text x="12" text-anchor="end" class="stat">%s</text>
-                                <svg class="icon" x="-14" y="-11" viewBox="0 0 16 16" width="14" height="14">
-                                    <path fill-rule="evenodd" d="M8 .25a.75.75 0 01.673.418l1.882 3.815 4.21.612a.75.75 0 01.416 1.279l-3.046 2.97.719 4.192a.75.75 0 01-1.088.791L8 12.347l-3.766 1.98a.75.75 0 01-1.088-.79l.72-4.194L.818 6.374a.75.75 0 01.416-1.28l4.21-.611L7.327.668A.75.75 0 018 .25z"/>
-                                </svg>
-                            </g>
-                        </g>
+                <!-- Rank -->
+                <g transform="translate(%d, %d)">
+                    <g class="fade-in delay-5">
+                        <circle cx="40" cy="40" r="40" fill="none" stroke="#%s" stroke-width="6" opacity="0.2" />
+                        <circle cx="40" cy="40" r="40" fill="none" stroke="#%s" stroke-width="6" class="rank-circle" stroke-linecap="round" transform="rotate(-90 40 40)" />
+                        <text x="40" y="40" class="rank-text">%s</text>
                     </g>
-                </svg>
-                """
-                .formatted(
-                        REPO_CARD_WIDTH, totalHeight, REPO_CARD_WIDTH, totalHeight,
-                        headerFontSize, titleColor, textColor, textColor, iconColor,
-                        REPO_CARD_WIDTH - 1, bgColor, borderColor, hideBorder ? "0" : "1",
-                        headerY,
-                        escapeHtml(repo.name()),
-                        descSvg.toString(),
-                        footerY - 5, langColor, footerY, escapeHtml(langName),
-                        40 + estimateTextWidth(langName) + 15, footerY, commits,
-                        footerY, forks, stars);
-    }
+                </g>
+
+                <!-- tempo total -->
+                <g class="fade-in delay-5">
+                    %s
+                </g>
+            </svg>
+            """);
 
-    // --- CARD DE ESTATÍSTICAS ---
     public String generateStatsCard(
             com.n33miaz.stats.service.GithubService.StatsData stats,
             Map<String, String> colors,
@@ -222,101 +307,160 @@ public class SvgService {
         String timeBadgeSvg = "";
         String timeBadgeColor = "39d353";
         if (timeText != null && !timeText.isEmpty()) {
-            timeBadgeSvg = String.format("""
-                    <g transform="translate(%d, %d)">
-                        <rect x="-60" y="0" width="120" height="22" rx="11" fill="#%s" fill-opacity="0.15"/>
-                        <text x="0" y="15" text-anchor="middle" font-size="11" font-weight="600" fill="#%s">%s</text>
-                    </g>
-                    """,
-                    width / 2,
-                    height - 35,
-                    timeBadgeColor, timeBadgeColor,
-                    timeText);
+            timeBadgeSvg = STATS_TIME_BADGE.writer()
+                    .num(width / 2)
+                    .num(height - 35)
+                    .str(timeBadgeColor)
+                    .str(timeBadgeColor)
+                    .str(timeText)
+                    .render();
         }
 
-        return """
-                <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
-                    <style>
-                        .header { font: 600 18px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; animation: fadeIn 0.8s ease-in-out forwards; }
-                        .stat-label { font: 600 14px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                        .stat-value { font: 600 14px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                        .icon { fill: #%s; }
-                        .rank-text { font: 800 24px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; dominant-baseline: central; text-anchor: middle; }
-
-                        .fade-in { opacity: 0; animation: fadeIn 0.5s ease-in-out forwards; }
-                        .delay-1 { animation-delay: 0.1s; }
-                        .delay-2 { animation-delay: 0.2s; }
-                        .delay-3 { animation-delay: 0.3s; }
-                        .delay-4 { animation-delay: 0.4s; }
-                        .delay-5 { animation-delay: 0.5s; }
-
-                        @keyframes fadeIn {
-                            from { opacity: 0; transform: translateX(-10px); }
-                            to { opacity: 1; transform: translateX(0); }
-                        }
-
-                        .rank-circle {
-                            stroke-dasharray: 250;
-                            stroke-dashoffset: 250;
-                            animation: animateRank 1s ease-in-out forwards 0.5s;
-                        }
-                        @keyframes animateRank { to { stroke-dashoffset: %f; } }
-                    </style>
+        return STATS_CARD.writer()
+                .num(width)
+                .num(height)
+                .num(width)
+                .num(height)
+                .str(titleColor)
+                .str(textColor)
+                .str(textColor)
+                .str(iconColor)
+                .str(textColor)
+                .dec(strokeOffset)
+                .num(width - 1)
+                .str(bgColor)
+                .str(borderColor)
+                .str(hideBorder ? "0" : "1")
+                .num(paddingX)
+                .num(45)
+                .str(rowsSvg)
+                .num(width - 100 - paddingX)
+                .num((height / 2) - 50)
+                .str(ringColor)
+                .str(ringColor)
+                .str(stats.rank().level())
+                .str(timeBadgeSvg)
+                .render();
+    }
 
-                    <!-- Fundo -->
-                    <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
+    private static final SvgTemplate STAT_ROW = SvgTemplate.compile("""
+            <g transform="translate(%d, %d)">
+                <g class="fade-in delay-%d">
+                    <svg class="icon" x="0" y="-10" viewBox="0 0 16 16" width="16" height="16">
+                        <path fill-rule="evenodd" d="%s"/>
+                    </svg>
+                    <text x="25" y="3" class="stat-label">%s:</text>
+                    <text x="200" y="3" class="stat-value">%s</text>
+                </g>
+            </g>
+            """);
 
-                    <!-- Stats -->
-                    <g transform="translate(%d, %d)">
-                        %s
-                    </g>
+    private String createStatRow(int x, int y, String iconPath, String label, String valueStr, String iconColor,
+            String textColor) {
+        int delayIndex = (y / 28) + 1;
+
+        return STAT_ROW.writer()
+                .num(x)
+                .num(y)
+                .num(delayIndex)
+                .str(iconPath)
+                .str(label)
+                .str(valueStr)
+                .render();
+    }
+
+    // --- CARD DE STREAK (GitHub + WakaTime) ---
+    private static final SvgTemplate STREAK_TIME_BADGE = SvgTemplate.compile("""
+            <g transform="translate(%d, %d)">
+                <rect x="-50" y="0" width="100" height="22" rx="11" fill="#%s" fill-opacity="0.15"/>
+                <text x="0" y="15" text-anchor="middle" font-size="11" font-weight="600" fill="#%s">%s</text>
+            </g>
+            """);
+
+    private static final SvgTemplate STREAK_CARD = SvgTemplate.compile("""
+            <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
+                <style>
+                    .stat-val { font: 700 30px 'Segoe UI', Ubuntu, Sans-Serif; }
+                    .stat-lbl { font: 600 14px 'Segoe UI', Ubuntu, Sans-Serif; }
+                    .stat-dte { font: 400 12px 'Segoe UI', Ubuntu, Sans-Serif; }
+
+                    .fade-in { opacity: 0; animation: fadeIn 0.8s ease-in-out forwards; }
+
+                    .fire-anim {
+                        animation: firePulse 3s ease-in-out infinite;
+                        transform-origin: center;
+                        transform-box: fill-box;
+                    }
 
-                    <!-- Rank -->
+                    @keyframes fadeIn { from { opacity: 0; transform: translateY(10px); } to { opacity: 1; transform: translateY(0); } }
+                    @keyframes firePulse {
+                        0%% { opacity: 0.7; transform: scale(1); }
+                        50%% { opacity: 1; transform: scale(1.2); }
+                        100%% { opacity: 0.7; transform: scale(1); }
+                    }
+
+                    .progress-ring {
+                        stroke-dasharray: %f;
+                        stroke-dashoffset: %f;
+                        transition: stroke-dashoffset 1s ease-in-out;
+                        transform: rotate(-90deg);
+                        transform-origin: %dpx %dpx;
+                    }
+                </style>
+
+                <!-- Fundo -->
+                <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
+
+                <!-- ESQUERDA -->
+                <g class="fade-in" style="animation-delay: 0.1s">
+                    <text x="%d" y="82" text-anchor="middle" class="stat-val" fill="#%s">%s</text>
+                    <text x="%d" y="115" text-anchor="middle" class="stat-lbl" fill="#%s">Commits</text>
+                    <text x="%d" y="135" text-anchor="middle" class="stat-dte" fill="#%s" opacity="0.8">Current Year</text>
+                </g>
+
+                <!-- DIVISOR -->
+                <line x1="150" y1="40" x2="150" y2="165" stroke="#%s" stroke-width="1" stroke-opacity="0.2" />
+
+                <!-- MEIO -->
+                <g class="fade-in" style="animation-delay: 0.2s">
+                    <!-- Anéis -->
+                    <circle cx="%d" cy="%d" r="%d" fill="none" stroke="#%s" stroke-width="4" stroke-opacity="0.2" />
+                    <circle cx="%d" cy="%d" r="%d" fill="none" stroke="#%s" stroke-width="4" stroke-linecap="round" class="progress-ring"/>
+
+                    <!-- Número -->
+                    <text x="%d" y="%d" text-anchor="middle" class="stat-val" fill="#%s">%d</text>
+
+                    <!-- Fogo -->
                     <g transform="translate(%d, %d)">
-                        <g class="fade-in delay-5">
-                            <circle cx="40" cy="40" r="40" fill="none" stroke="#%s" stroke-width="6" opacity="0.2" />
-                            <circle cx="40" cy="40" r="40" fill="none" stroke="#%s" stroke-width="6" class="rank-circle" stroke-linecap="round" transform="rotate(-90 40 40)" />
-                            <text x="40" y="40" class="rank-text">%s</text>
+                        <circle cx="0" cy="0" r="14" fill="#%s" />
+                        <g transform="translate(-12, -13) scale(1.5)">
+                            <path d="%s" fill="#%s" class="fire-anim" />
                         </g>
                     </g>
 
-                    <!-- tempo total -->
-                    <g class="fade-in delay-5">
-                        %s
-                    </g>
-                </svg>
-                """
-                .formatted(
-                        width, height, width, height,
-                        titleColor, textColor, textColor, iconColor, textColor,
-                        strokeOffset,
-                        width - 1, bgColor, borderColor, hideBorder ? "0" : "1",
-                        paddingX, 45,
-                        rowsSvg.toString(),
-                        width - 100 - paddingX, (height / 2) - 50,
-                        ringColor, ringColor,
-                        stats.rank().level(),
-                        timeBadgeSvg);
-    }
+                    <!-- Labels -->
+                    <text x="%d" y="%d" text-anchor="middle" class="stat-lbl" fill="#%s">Current Streak</text>
+                    <text x="%d" y="%d" text-anchor="middle" class="stat-dte" fill="#%s" opacity="0.8">%s</text>
+                </g>
 
-    private String createStatRow(int x, int y, String iconPath, String label, String valueStr, String iconColor,
-            String textColor) {
-        int delayIndex = (y / 28) + 1;
+                <!-- DIVISOR -->
+                <line x1="300" y1="40" x2="300" y2="165" stroke="#%s" stroke-width="1" stroke-opacity="0.2" />
 
-        return """
-                <g transform="translate(%d, %d)">
-                    <g class="fade-in delay-%d">
-                        <svg class="icon" x="0" y="-10" viewBox="0 0 16 16" width="16" height="16">
-                            <path fill-rule="evenodd" d="%s"/>
-                        </svg>
-                        <text x="25" y="3" class="stat-label">%s:</text>
-                        <text x="200" y="3" class="stat-value">%s</text>
-                    </g>
+                <!-- DIREITA -->
+                <g class="fade-in" style="animation-delay: 0.3s">
+                    <text x="%d" y="82" text-anchor="middle" class="stat-val" fill="#%s">%d</text>
+                    <text x="%d" y="115" text-anchor="middle" class="stat-lbl" fill="#%s">Longest Streak</text>
+                    <text x="%d" y="135" text-anchor="middle" class="stat-dte" fill="#%s" opacity="0.8">%s</text>
                 </g>
-                """.formatted(x, y, delayIndex, iconPath, label, valueStr);
-    }
 
-    // --- CARD DE STREAK (GitHub + WakaTime) ---
+                <!-- INDICADOR DE TEMPO -->
+                <g class="fade-in" style="animation-delay: 0.4s">
+                    %s
+                </g>
+
+            </svg>
+            """);
+
     public String generateStreakCard(
             com.n33miaz.stats.dto.StreakStatsDto stats,
             Map<String, String> colors,
@@ -361,121 +505,157 @@ public class SvgService {
         // badge de tempo
         String timeBadgeSvg = "";
         if (timeCoded != null && !timeCoded.isEmpty()) {
-            timeBadgeSvg = String.format("""
-                    <g transform="translate(%d, %d)">
-                        <rect x="-50" y="0" width="100" height="22" rx="11" fill="#%s" fill-opacity="0.15"/>
-                        <text x="0" y="15" text-anchor="middle" font-size="11" font-weight="600" fill="#%s">%s</text>
-                    </g>
-                    """, col2X, height - 35, timeBadgeColor, timeBadgeColor, timeCoded);
+            timeBadgeSvg = STREAK_TIME_BADGE.writer()
+                    .num(col2X)
+                    .num(height - 35)
+                    .str(timeBadgeColor)
+                    .str(timeBadgeColor)
+                    .str(timeCoded)
+                    .render();
         }
 
-        return String.format(java.util.Locale.US,
-                """
-                        <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
-                            <style>
-                                .stat-val { font: 700 30px 'Segoe UI', Ubuntu, Sans-Serif; }
-                                .stat-lbl { font: 600 14px 'Segoe UI', Ubuntu, Sans-Serif; }
-                                .stat-dte { font: 400 12px 'Segoe UI', Ubuntu, Sans-Serif; }
-
-                                .fade-in { opacity: 0; animation: fadeIn 0.8s ease-in-out forwards; }
-
-                                .fire-anim {
-                                    animation: firePulse 3s ease-in-out infinite;
-                                    transform-origin: center;
-                                    transform-box: fill-box;
-                                }
-
-                                @keyframes fadeIn { from { opacity: 0; transform: translateY(10px); } to { opacity: 1; transform: translateY(0); } }
-                                @keyframes firePulse {
-                                    0%% { opacity: 0.7; transform: scale(1); }
-                                    50%% { opacity: 1; transform: scale(1.2); }
-                                    100%% { opacity: 0.7; transform: scale(1); }
-                                }
-
-                                .progress-ring {
-                                    stroke-dasharray: %f;
-                                    stroke-dashoffset: %f;
-                                    transition: stroke-dashoffset 1s ease-in-out;
-                                    transform: rotate(-90deg);
-                                    transform-origin: %dpx %dpx;
-                                }
-                            </style>
-
-                            <!-- Fundo -->
-                            <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
-
-                            <!-- ESQUERDA -->
-                            <g class="fade-in" style="animation-delay: 0.1s">
-                                <text x="%d" y="82" text-anchor="middle" class="stat-val" fill="#%s">%s</text>
-                                <text x="%d" y="115" text-anchor="middle" class="stat-lbl" fill="#%s">Commits</text>
-                                <text x="%d" y="135" text-anchor="middle" class="stat-dte" fill="#%s" opacity="0.8">Current Year</text>
-                            </g>
-
-                            <!-- DIVISOR -->
-                            <line x1="150" y1="40" x2="150" y2="165" stroke="#%s" stroke-width="1" stroke-opacity="0.2" />
-
-                            <!-- MEIO -->
-                            <g class="fade-in" style="animation-delay: 0.2s">
-                                <!-- Anéis -->
-                                <circle cx="%d" cy="%d" r="%d" fill="none" stroke="#%s" stroke-width="4" stroke-opacity="0.2" />
-                                <circle cx="%d" cy="%d" r="%d" fill="none" stroke="#%s" stroke-width="4" stroke-linecap="round" class="progress-ring"/>
-
-                                <!-- Número -->
-                                <text x="%d" y="%d" text-anchor="middle" class="stat-val" fill="#%s">%d</text>
-
-                                <!-- Fogo -->
-                                <g transform="translate(%d, %d)">
-                                    <circle cx="0" cy="0" r="14" fill="#%s" />
-                                    <g transform="translate(-12, -13) scale(1.5)">
-                                        <path d="%s" fill="#%s" class="fire-anim" />
-                                    </g>
-                                </g>
-
-                                <!-- Labels -->
-                                <text x="%d" y="%d" text-anchor="middle" class="stat-lbl" fill="#%s">Current Streak</text>
-                                <text x="%d" y="%d" text-anchor="middle" class="stat-dte" fill="#%s" opacity="0.8">%s</text>
-                            </g>
-
-                            <!-- DIVISOR -->
-                            <line x1="300" y1="40" x2="300" y2="165" stroke="#%s" stroke-width="1" stroke-opacity="0.2" />
-
-                            <!-- DIREITA -->
-                            <g class="fade-in" style="animation-delay: 0.3s">
-                                <text x="%d" y="82" text-anchor="middle" class="stat-val" fill="#%s">%d</text>
-                                <text x="%d" y="115" text-anchor="middle" class="stat-lbl" fill="#%s">Longest Streak</text>
-                                <text x="%d" y="135" text-anchor="middle" class="stat-dte" fill="#%s" opacity="0.8">%s</text>
-                            </g>
-
-                            <!-- INDICADOR DE TEMPO -->
-                            <g class="fade-in" style="animation-delay: 0.4s">
-                                %s
-                            </g>
-
-                        </svg>
-                        """,
-                width, height, width, height,
-                circumference, strokeDashOffset, col2X, centerY,
-                width - 1, bgColor, borderColor, hideBorder ? "0" : "1",
-                col1X, sideNumsColor, kFormatter(stats.currentYearCommits()),
-                col1X, sideLabelsColor,
-                col1X, datesColor,
-                textColor,
-                col2X, centerY, radius, ringColor,
-                col2X, centerY, radius, ringColor,
-                col2X, centerY + 10, currStreakNumColor, stats.currentStreak(),
-                col2X, centerY - radius, bgColor, fireIcon, fireColor,
-                col2X, centerY + 68, sideLabelsColor,
-                col2X, centerY + 88, datesColor, stats.currentStreakRange(),
-                textColor,
-                col3X, sideNumsColor, stats.longestStreak(),
-                col3X, sideLabelsColor,
-                col3X, datesColor, stats.longestStreakRange(),
-                timeBadgeSvg);
+        return STREAK_CARD.writer()
+                .num(width)
+                .num(height)
+                .num(width)
+                .num(height)
+                .dec(circumference)
+                .dec(strokeDashOffset)
+                .num(col2X)
+                .num(centerY)
+                .num(width - 1)
+                .str(bgColor)
+                .str(borderColor)
+                .str(hideBorder ? "0" : "1")
+                .num(col1X)
+                .str(sideNumsColor)
+                .str(kFormatter(stats.currentYearCommits()))
+                .num(col1X)
+                .str(sideLabelsColor)
+                .num(col1X)
+                .str(datesColor)
+                .str(textColor)
+                .num(col2X)
+                .num(centerY)
+                .num(radius)
+                .str(ringColor)
+                .num(col2X)
+                .num(centerY)
+                .num(radius)
+                .str(ringColor)
+                .num(col2X)
+                .num(centerY + 10)
+                .str(currStreakNumColor)
+                .num(stats.currentStreak())
+                .num(col2X)
+                .num(centerY - radius)
+                .str(bgColor)
+                .str(fireIcon)
+                .str(fireColor)
+                .num(col2X)
+                .num(centerY + 68)
+                .str(sideLabelsColor)
+                .num(col2X)
+                .num(centerY + 88)
+                .str(datesColor)
+                .str(stats.currentStreakRange())
+                .str(textColor)
+                .num(col3X)
+                .str(sideNumsColor)
+                .num(stats.longestStreak())
+                .num(col3X)
+                .str(sideLabelsColor)
+                .num(col3X)
+                .str(datesColor)
+                .str(stats.longestStreakRange())
+                .str(timeBadgeSvg)
+                .render();
     }
 
     // --- GRÁFICO DE CONTRIBUIÇÃO (GitHub + WakaTime) ---
+    private static final SvgTemplate GRAPH_CARD = SvgTemplate.compile("""
+            <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
+                <style>
+                    .title { font: 700 20px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                    .axis-text { font: 400 11px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; opacity: 0.7; }
+                    .legend { font: 600 12px 'Segoe UI', Ubuntu, Sans-Serif; }
+
+                    .grid { stroke: #%s; stroke-width: 1; stroke-opacity: 0.3; stroke-dasharray: 2px; }
+
+                    .line-path { stroke-dasharray: 5000; stroke-dashoffset: 5000; animation: dash 3.5s ease-in-out forwards; }
+                    .area-path { opacity: 0; animation: fadeIn 1.5s ease-out forwards 0.5s; }
+
+                    .point-anim { opacity: 0; transform-origin: center; animation: blink 0.8s ease-in-out forwards; }
+
+                    @keyframes dash { to { stroke-dashoffset: 0; } }
+                    @keyframes fadeIn { to { opacity: 1; } }
+                    @keyframes blink { from { opacity: 0; transform: scale(0); } to { opacity: 1; transform: scale(1); } }
+
+                    /* TOOLTIP */
+                    .point-group { cursor: pointer; }
+                    .tooltip-container { opacity: 0; transition: opacity 0.2s ease-in-out; pointer-events: none; }
+                    .point-group:hover .tooltip-container { opacity: 1; }
+                    .point-group:hover .visible-point { stroke-width: 4px; filter: drop-shadow(0 0 5px rgba(0,0,0,0.5)); }
+
+                    .tooltip-box { fill: #0d1117; stroke: #30363d; stroke-width: 1px; rx: 4; filter: drop-shadow(0 4px 6px rgba(0,0,0,0.3)); }
+                    .tooltip-header { font: 600 11px 'Segoe UI', Ubuntu, Sans-Serif; fill: #c9d1d9; }
+                    .tooltip-text { font: 400 10px 'Segoe UI', Ubuntu, Sans-Serif; fill: #8b949e; }
+                </style>
+
+                <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
+
+                <!-- Header -->
+                <g transform="translate(%d, 40)">
+                    <text x="0" y="0" class="title">Weekly Activity</text>
+                </g>
+
+                <!-- Legenda -->
+                <g transform="translate(%d, 40)">
+                    <rect x="0" y="-8" width="10" height="10" rx="2" fill="#%s" />
+                    <text x="15" y="1" class="legend" fill="#%s">Commits</text>
+                    <rect x="80" y="-8" width="10" height="10" rx="2" fill="#%s" />
+                    <text x="95" y="1" class="legend" fill="#%s">Coding Time</text>
+                </g>
+
+                <!-- Eixos e Grids -->
+                %s
+                %s
+                %s
+
+                <!-- Gráficos -->
+                <defs>
+                    <linearGradient id="gradCommits" x1="0" y1="0" x2="0" y2="1">
+                        <stop offset="0%%" stop-color="#%s" stop-opacity="0.2"/>
+                        <stop offset="100%%" stop-color="#%s" stop-opacity="0"/>
+                    </linearGradient>
+                </defs>
+
+                <path d="%s" fill="url(#gradCommits)" class="area-path" />
+                <path d="%s" fill="none" stroke="#%s" stroke-width="2" stroke-linecap="round" stroke-linejoin="round" class="line-path" style="animation-delay: 0.2s"/>
+                <path d="%s" fill="none" stroke="#%s" stroke-width="4" stroke-linecap="round" stroke-linejoin="round" class="line-path"/>
+
+                <!-- Pontos com Tooltip -->
+                %s
+            </svg>
+            """);
+
+    private static final SvgTemplate GRID_ROW = SvgTemplate.compile(
+            "<line x1='%d' y1='%d' x2='%d' y2='%d' class='grid' />");
+
+    private static final SvgTemplate GRID_COLUMN = SvgTemplate.compile(
+            "<line x1='%.2f' y1='%d' x2='%.2f' y2='%d' class='grid' />");
+
+    private static final SvgTemplate COMMITS_LABEL = SvgTemplate.compile(
+            "<text x='%d' y='%d' text-anchor='end' class='axis-text'>%d</text>");
+
+    private static final SvgTemplate TIME_LABEL = SvgTemplate.compile(
+            "<text x='%d' y='%d' text-anchor='start' class='axis-text'>%s</text>");
+
+    private static final SvgTemplate DATE_LABEL = SvgTemplate.compile(
+            "<text x='%.2f' y='%d' text-anchor='%s' class='axis-text'>%s</text>");
+
     public String generateContributionGraph(
-            com.n33miaz.stats.dto.GithubContributionResponse githubData,
+            com.n33miaz.stats.dto.ContributionCalendar githubData,
             com.n33miaz.stats.dto.WakaTimeSummaryResponse wakaData,
             Map<String, String> colors,
             boolean hideBorder,
@@ -518,21 +698,28 @@ public class SvgService {
             int y = padTop + graphHeight - (int) (graphHeight * ratio);
 
             // grid horizontal
-            gridSvg.append(String.format(java.util.Locale.US,
-                    "<line x1='%d' y1='%d' x2='%d' y2='%d' class='grid' />",
-                    padLeft, y, width - padRight, y));
+            GRID_ROW.appendTo(gridSvg)
+                    .num(padLeft)
+                    .num(y)
+                    .num(width - padRight)
+                    .num(y)
+                    .end();
 
             // labels
             int valCommit = (int) (maxCommits * ratio);
             String valTime = formatDurationShort((long) (maxSeconds * ratio));
 
-            labelsSvg.append(String.format(java.util.Locale.US,
-                    "<text x='%d' y='%d' text-anchor='end' class='axis-text'>%d</text>",
-                    padLeft - 10, y + 4, valCommit));
-
-            labelsSvg.append(String.format(java.util.Locale.US,
-                    "<text x='%d' y='%d' text-anchor='start' class='axis-text'>%s</text>",
-                    width - padRight + 10, y + 4, valTime));
+            COMMITS_LABEL.appendTo(labelsSvg)
+                    .num(padLeft - 10)
+                    .num(y + 4)
+                    .num(valCommit)
+                    .end();
+
+            TIME_LABEL.appendTo(labelsSvg)
+                    .num(width - padRight + 10)
+                    .num(y + 4)
+                    .str(valTime)
+                    .end();
         }
 
         // pontos e tooltips
@@ -553,16 +740,22 @@ public class SvgService {
 
             // grid vertical
             if (i > 0 && i < stats.size() - 1) {
-                gridSvg.append(String.format(java.util.Locale.US,
-                        "<line x1='%.2f' y1='%d' x2='%.2f' y2='%d' class='grid' />",
-                        x, padTop, x, height - padBottom));
+                GRID_COLUMN.appendTo(gridSvg)
+                        .dec(x)
+                        .num(padTop)
+                        .dec(x)
+                        .num(height - padBottom)
+                        .end();
             }
 
             // Datas
             String textAnchor = (i == 0) ? "start" : (i == stats.size() - 1) ? "end" : "middle";
-            xAxisSvg.append(String.format(java.util.Locale.US,
-                    "<text x='%.2f' y='%d' text-anchor='%s' class='axis-text'>%s</text>",
-                    x, height - 15, textAnchor, formatDateDDMM(stat.date)));
+            DATE_LABEL.appendTo(xAxisSvg)
+                    .dec(x)
+                    .num(height - 15)
+                    .str(textAnchor)
+                    .str(formatDateDDMM(stat.date))
+                    .end();
 
             // colisão/sobreposição
             double dist = Math.abs(yCommits - yWaka);
@@ -611,88 +804,116 @@ public class SvgService {
         String wakaLinePath = buildSmoothPath(wakaPoints, false, 0, 0, 0);
 
         // montagem
-        return String.format(java.util.Locale.US,
-                """
-                        <svg width="%d" height="%d" viewBox="0 0 %d %d" fill="none" xmlns="http://www.w3.org/2000/svg">
-                            <style>
-                                .title { font: 700 20px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                                .axis-text { font: 400 11px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; opacity: 0.7; }
-                                .legend { font: 600 12px 'Segoe UI', Ubuntu, Sans-Serif; }
-
-                                .grid { stroke: #%s; stroke-width: 1; stroke-opacity: 0.3; stroke-dasharray: 2px; }
-
-                                .line-path { stroke-dasharray: 5000; stroke-dashoffset: 5000; animation: dash 3.5s ease-in-out forwards; }
-                                .area-path { opacity: 0; animation: fadeIn 1.5s ease-out forwards 0.5s; }
-
-                                .point-anim { opacity: 0; transform-origin: center; animation: blink 0.8s ease-in-out forwards; }
-
-                                @keyframes dash { to { stroke-dashoffset: 0; } }
-                                @keyframes fadeIn { to { opacity: 1; } }
-                                @keyframes blink { from { opacity: 0; transform: scale(0); } to { opacity: 1; transform: scale(1); } }
-
-                                /* TOOLTIP */
-                                .point-group { cursor: pointer; }
-                                .tooltip-container { opacity: 0; transition: opacity 0.2s ease-in-out; pointer-events: none; }
-                                .point-group:hover .tooltip-container { opacity: 1; }
-                                .point-group:hover .visible-point { stroke-width: 4px; filter: drop-shadow(0 0 5px rgba(0,0,0,0.5)); }
-
-                                .tooltip-box { fill: #0d1117; stroke: #30363d; stroke-width: 1px; rx: 4; filter: drop-shadow(0 4px 6px rgba(0,0,0,0.3)); }
-                                .tooltip-header { font: 600 11px 'Segoe UI', Ubuntu, Sans-Serif; fill: #c9d1d9; }
-                                .tooltip-text { font: 400 10px 'Segoe UI', Ubuntu, Sans-Serif; fill: #8b949e; }
-                            </style>
-
-                            <rect x="0.5" y="0.5" rx="10" height="99%%" width="%d" fill="#%s" stroke="#%s" stroke-opacity="%s" />
-
-                            <!-- Header -->
-                            <g transform="translate(%d, 40)">
-                                <text x="0" y="0" class="title">Weekly Activity</text>
-                            </g>
-
-                            <!-- Legenda -->
-                            <g transform="translate(%d, 40)">
-                                <rect x="0" y="-8" width="10" height="10" rx="2" fill="#%s" />
-                                <text x="15" y="1" class="legend" fill="#%s">Commits</text>
-                                <rect x="80" y="-8" width="10" height="10" rx="2" fill="#%s" />
-                                <text x="95" y="1" class="legend" fill="#%s">Coding Time</text>
-                            </g>
-
-                            <!-- Eixos e Grids -->
-                            %s
-                            %s
-                            %s
-
-                            <!-- Gráficos -->
-                            <defs>
-                                <linearGradient id="gradCommits" x1="0" y1="0" x2="0" y2="1">
-                                    <stop offset="0%%" stop-color="#%s" stop-opacity="0.2"/>
-                                    <stop offset="100%%" stop-color="#%s" stop-opacity="0"/>
-                                </linearGradient>
-                            </defs>
-
-                            <path d="%s" fill="url(#gradCommits)" class="area-path" />
-                            <path d="%s" fill="none" stroke="#%s" stroke-width="2" stroke-linecap="round" stroke-linejoin="round" class="line-path" style="animation-delay: 0.2s"/>
-                            <path d="%s" fill="none" stroke="#%s" stroke-width="4" stroke-linecap="round" stroke-linejoin="round" class="line-path"/>
-
-                            <!-- Pontos com Tooltip -->
-                            %s
-                        </svg>
-                        """,
-                width, height, width, height,
-                titleColor, textColor, titleColor,
-                width - 1, bgColor, borderColor, hideBorder ? "0" : "1",
-                padLeft,
-                width - padRight - 170,
-                titleColor, textColor,
-                wakaColor, textColor,
-                gridSvg.toString(), labelsSvg.toString(), xAxisSvg.toString(),
-                titleColor, titleColor,
-                commitsAreaPath,
-                wakaLinePath, wakaColor,
-                commitsLinePath, titleColor,
-                pointsAndTooltipsSvg.toString());
+        return GRAPH_CARD.writer()
+                .num(width)
+                .num(height)
+                .num(width)
+                .num(height)
+                .str(titleColor)
+                .str(textColor)
+                .str(titleColor)
+                .num(width - 1)
+                .str(bgColor)
+                .str(borderColor)
+                .str(hideBorder ? "0" : "1")
+                .num(padLeft)
+                .num(width - padRight - 170)
+                .str(titleColor)
+                .str(textColor)
+                .str(wakaColor)
+                .str(textColor)
+                .str(gridSvg)
+                .str(labelsSvg)
+                .str(xAxisSvg)
+                .str(titleColor)
+                .str(titleColor)
+                .str(commitsAreaPath)
+                .str(wakaLinePath)
+                .str(wakaColor)
+                .str(commitsLinePath)
+                .str(titleColor)
+                .str(pointsAndTooltipsSvg)
+                .render();
     }
 
     // --- DASHBOARD DE MÚSICA ---
+    private static final SvgTemplate MUSIC_COVER = SvgTemplate.compile(
+            "<image x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" href=\"%s\" clip-path=\"url(#clip-main)\" class=\"album-art\"/>");
+
+    private static final SvgTemplate MUSIC_PLAYS_BADGE = SvgTemplate.compile("""
+              <g transform="translate(%d, %d)">
+                  <rect x="-50" y="0" width="100" height="20" rx="10" fill="#%s" fill-opacity="0.15"/>
+                  <text x="0" y="14" text-anchor="middle" font-size="10" font-weight="bold" fill="#%s">%d plays</text>
+              </g>
+            """);
+
+    private static final SvgTemplate MUSIC_PERIOD_BADGE = SvgTemplate.compile("""
+                <g transform="translate(%d, %d)">
+                    <rect x="-40" y="0" width="80" height="20" rx="10" fill="#%s" fill-opacity="0.15"/>
+                    <text x="0" y="14" text-anchor="middle" font-size="10" font-weight="600" fill="#%s">%s</text>
+                </g>
+            """);
+
+    private static final SvgTemplate MUSIC_CARD = SvgTemplate.compile("""
+                <svg width="800" height="215" viewBox="0 0 800 215" fill="none" xmlns="http://www.w3.org/2000/svg">
+                    <style>
+                        .header { font: 700 10px 'Segoe UI', Ubuntu, Sans-Serif; letter-spacing: 1.5px; fill: #%s; opacity: 0.8; }
+                        .title { font: 700 19px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                        .subtitle { font: 400 14px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; opacity: 0.9; }
+                        .stat-title { font: 600 13px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
+                        .stat-sub { font: 400 11px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; opacity: 0.7; }
+                        .section-header { font: 700 12px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; text-transform: uppercase; letter-spacing: 1px; }
+
+                        .fade-in { animation: fadeIn 0.8s ease-in-out forwards; opacity: 0; }
+                        @keyframes fadeIn { from { opacity: 0; transform: translateY(10px); } to { opacity: 1; transform: translateY(0); } }
+
+                        .album-art { filter: drop-shadow(0px 8px 16px rgba(0,0,0,0.3)); }
+                    </style>
+
+                    <rect x="0.5" y="0.5" rx="10" height="99%%" width="799" fill="#%s" stroke="#%s" stroke-opacity="%s" />
+
+                    <defs>
+                        <clipPath id="clip-main"><rect x="%d" y="%d" width="%d" height="%d" rx="6" /></clipPath>
+                        <clipPath id="clip-circle"><circle cx="16" cy="16" r="16" /></clipPath>
+                        <clipPath id="clip-square"><rect x="0" y="0" width="32" height="32" rx="4" /></clipPath>
+                    </defs>
+
+                    <!-- ESQUERDA -->
+                    <g class="fade-in" style="animation-delay: 0.1s">
+                        <!-- Status -->
+                        <text x="%d" y="30" text-anchor="middle" class="section-header">%s</text>
+
+                        <!-- Imagem -->
+                        %s
+
+                        <!-- Track Info -->
+                        <text x="%d" y="90" text-anchor="start" class="title">%s</text>
+                        <text x="%d" y="115" text-anchor="start" class="subtitle">%s</text>
+
+                        %s <!-- Equalizer -->
+                        %s <!-- Plays -->
+                    </g>
+
+                    <!-- DIVISOR -->
+                    <line x1="%d" y1="30" x2="%d" y2="%d" stroke="#%s" stroke-width="1" stroke-opacity="0.2" />
+
+                    <!-- DIREITA -->
+                    <g class="fade-in" style="animation-delay: 0.3s">
+                        <text x="%d" y="30" text-anchor="middle" class="section-header">Top Artists</text>
+                        %s
+                    </g>
+
+                    <g class="fade-in" style="animation-delay: 0.5s">
+                        <text x="%d" y="30" text-anchor="middle" class="section-header">Top Albums</text>
+                        %s
+                    </g>
+
+                    <!-- Período -->
+                    %s
+
+                </svg>
+            """);
+
     public String generateMusicDashboard(MusicDashboardData data, java.util.Map<String, String> colors,
             boolean hideBorder, String periodText) {
         String titleColor = colors.getOrDefault("title_color", "2f80ed");
@@ -715,9 +936,13 @@ public class SvgService {
 
         String coverImage = data.currentTrack().imageBase64().isEmpty()
                 ? renderDefaultDisk(imgX + (imgSize / 2), imgY + (imgSize / 2), imgSize / 2)
-                : String.format(
-                        "<image x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" href=\"%s\" clip-path=\"url(#clip-main)\" class=\"album-art\"/>",
-                        imgX, imgY, imgSize, imgSize, data.currentTrack().imageBase64());
+                : MUSIC_COVER.writer(data.currentTrack().imageBase64().length())
+                        .num(imgX)
+                        .num(imgY)
+                        .num(imgSize)
+                        .num(imgSize)
+                        .str(data.currentTrack().imageBase64())
+                        .render();
 
         String statusText = data.currentTrack().isPlaying() ? "NOW PLAYING" : "LAST PLAYED";
 
@@ -726,14 +951,13 @@ public class SvgService {
 
         // Plays
         String playsBadge = data.currentTrack().userPlayCount() > 0
-                ? String.format(
-                        """
-                                  <g transform="translate(%d, %d)">
-                                      <rect x="-50" y="0" width="100" height="20" rx="10" fill="#%s" fill-opacity="0.15"/>
-                                      <text x="0" y="14" text-anchor="middle" font-size="10" font-weight="bold" fill="#%s">%d plays</text>
-                                  </g>
-                                """,
-                        leftCenter, bottomY, titleColor, titleColor, data.currentTrack().userPlayCount())
+                ? MUSIC_PLAYS_BADGE.writer()
+                        .num(leftCenter)
+                        .num(bottomY)
+                        .str(titleColor)
+                        .str(titleColor)
+                        .num(data.currentTrack().userPlayCount())
+                        .render()
                 : "";
 
         // Listas
@@ -742,91 +966,52 @@ public class SvgService {
 
         // Período
         int rightCenter = dividerX + (800 - dividerX) / 2;
-        String periodBadge = String.format("""
-                    <g transform="translate(%d, %d)">
-                        <rect x="-40" y="0" width="80" height="20" rx="10" fill="#%s" fill-opacity="0.15"/>
-                        <text x="0" y="14" text-anchor="middle" font-size="10" font-weight="600" fill="#%s">%s</text>
-                    </g>
-                """, rightCenter, bottomY, titleColor, titleColor, periodText);
-
-        return """
-                    <svg width="800" height="215" viewBox="0 0 800 215" fill="none" xmlns="http://www.w3.org/2000/svg">
-                        <style>
-                            .header { font: 700 10px 'Segoe UI', Ubuntu, Sans-Serif; letter-spacing: 1.5px; fill: #%s; opacity: 0.8; }
-                            .title { font: 700 19px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                            .subtitle { font: 400 14px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; opacity: 0.9; }
-                            .stat-title { font: 600 13px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; }
-                            .stat-sub { font: 400 11px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; opacity: 0.7; }
-                            .section-header { font: 700 12px 'Segoe UI', Ubuntu, Sans-Serif; fill: #%s; text-transform: uppercase; letter-spacing: 1px; }
-
-                            .fade-in { animation: fadeIn 0.8s ease-in-out forwards; opacity: 0; }
-                            @keyframes fadeIn { from { opacity: 0; transform: translateY(10px); } to { opacity: 1; transform: translateY(0); } }
-
-                            .album-art { filter: drop-shadow(0px 8px 16px rgba(0,0,0,0.3)); }
-                        </style>
-
-                        <rect x="0.5" y="0.5" rx="10" height="99%%" width="799" fill="#%s" stroke="#%s" stroke-opacity="%s" />
-
-                        <defs>
-                            <clipPath id="clip-main"><rect x="%d" y="%d" width="%d" height="%d" rx="6" /></clipPath>
-                            <clipPath id="clip-circle"><circle cx="16" cy="16" r="16" /></clipPath>
-                            <clipPath id="clip-square"><rect x="0" y="0" width="32" height="32" rx="4" /></clipPath>
-                        </defs>
-
-                        <!-- ESQUERDA -->
-                        <g class="fade-in" style="animation-delay: 0.1s">
-                            <!-- Status -->
-                            <text x="%d" y="30" text-anchor="middle" class="section-header">%s</text>
-
-                            <!-- Imagem -->
-                            %s
-
-                            <!-- Track Info -->
-                            <text x="%d" y="90" text-anchor="start" class="title">%s</text>
-                            <text x="%d" y="115" text-anchor="start" class="subtitle">%s</text>
-
-                            %s <!-- Equalizer -->
-                            %s <!-- Plays -->
-                        </g>
-
-                        <!-- DIVISOR -->
-                        <line x1="%d" y1="30" x2="%d" y2="%d" stroke="#%s" stroke-width="1" stroke-opacity="0.2" />
-
-                        <!-- DIREITA -->
-                        <g class="fade-in" style="animation-delay: 0.3s">
-                            <text x="%d" y="30" text-anchor="middle" class="section-header">Top Artists</text>
-                            %s
-                        </g>
-
-                        <g class="fade-in" style="animation-delay: 0.5s">
-                            <text x="%d" y="30" text-anchor="middle" class="section-header">Top Albums</text>
-                            %s
-                        </g>
-
-                        <!-- Período -->
-                        %s
-
-                    </svg>
-                """
-                .formatted(
-                        titleColor, titleColor, textColor,
-                        titleColor, textColor, textColor,
-                        bgColor, borderColor, hideBorder ? "0" : "1",
-                        imgX, imgY, imgSize, imgSize,
-                        leftCenter, statusText,
-                        coverImage,
-                        textX, escapeHtml(truncate(data.currentTrack().name(), 15)),
-                        textX, escapeHtml(truncate(data.currentTrack().artist(), 25)),
-                        equalizer, playsBadge,
-                        dividerX, dividerX, bottomY, textColor,
-                        col1X + 90, artistsList,
-                        col2X + 90, albumsList,
-                        periodBadge);
+        String periodBadge = MUSIC_PERIOD_BADGE.writer()
+                .num(rightCenter)
+                .num(bottomY)
+                .str(titleColor)
+                .str(titleColor)
+                .str(periodText)
+                .render();
+
+        return MUSIC_CARD.writer(coverImage.length() + artistsList.length() + albumsList.length())
+                .str(titleColor)
+                .str(titleColor)
+                .str(textColor)
+                .str(titleColor)
+                .str(textColor)
+                .str(textColor)
+                .str(bgColor)
+                .str(borderColor)
+                .str(hideBorder ? "0" : "1")
+                .num(imgX)
+                .num(imgY)
+                .num(imgSize)
+                .num(imgSize)
+                .num(leftCenter)
+                .str(statusText)
+                .str(coverImage)
+                .num(textX)
+                .str(escapeHtml(truncate(data.currentTrack().name(), 15)))
+                .num(textX)
+                .str(escapeHtml(truncate(data.currentTrack().artist(), 25)))
+                .str(equalizer)
+                .str(playsBadge)
+                .num(dividerX)
+                .num(dividerX)
+                .num(bottomY)
+                .str(textColor)
+                .num(col1X + 90)
+                .str(artistsList)
+                .num(col2X + 90)
+                .str(albumsList)
+                .str(periodBadge)
+                .render();
     }
 
     // --- HELPERS ---
     private List<DailyStat> mergeData(
-            com.n33miaz.stats.dto.GithubContributionResponse gh,
+            com.n33miaz.stats.dto.ContributionCalendar gh,
             com.n33miaz.stats.dto.WakaTimeSummaryResponse wk,
             int days) {
 
@@ -836,22 +1021,12 @@ public class SvgService {
 
         java.time.LocalDate start = end.minusDays(days - 1);
 
+        // dados do GitHub, direto do calendário compacto
         start.datesUntil(end.plusDays(1)).forEach(d -> {
-            map.put(d.format(iso), new DailyStat(d.format(iso), 0, 0.0));
+            int commits = gh != null ? gh.countOn(d.toEpochDay()) : 0;
+            map.put(d.format(iso), new DailyStat(d.format(iso), commits, 0.0));
         });
 
-        // dados do GitHub
-        if (gh != null && gh.data() != null && gh.data().user() != null) {
-            gh.data().user().contributionsCollection().contributionCalendar().weeks().forEach(week -> {
-                week.contributionDays().forEach(day -> {
-                    if (map.containsKey(day.date())) {
-                        DailyStat current = map.get(day.date());
-                        map.put(day.date(), new DailyStat(day.date(), day.contributionCount(), current.seconds));
-                    }
-                });
-            });
-        }
-
         // dados do WakaTime
         if (wk != null && wk.data() != null) {
             wk.data().forEach(summary -> {
@@ -882,7 +1057,8 @@ public class SvgService {
         long hours = totalSeconds / 3600;
         long minutes = (totalSeconds % 3600) / 60;
         if (hours > 0) {
-            return String.format("%dh %02dm", hours, minutes);
+            StringBuilder sb = new StringBuilder(8).append(hours).append("h ");
+            return SvgNumbers.appendPadded(sb, minutes, 2).append('m').toString();
         }
         return minutes + "m";
     }
@@ -893,7 +1069,9 @@ public class SvgService {
     private String formatDateDDMM(String isoDate) {
         try {
             java.time.LocalDate date = java.time.LocalDate.parse(isoDate);
-            return String.format("%02d/%02d", date.getDayOfMonth(), date.getMonthValue());
+            StringBuilder sb = new StringBuilder(5);
+            SvgNumbers.appendPadded(sb, date.getDayOfMonth(), 2).append('/');
+            return SvgNumbers.appendPadded(sb, date.getMonthValue(), 2).toString();
         } catch (Exception e) {
             return isoDate;
         }
@@ -902,12 +1080,22 @@ public class SvgService {
     private record Point(double x, double y) {
     }
 
+    private static final SvgTemplate PATH_MOVE = SvgTemplate.compile("M %.2f %.2f");
+
+    private static final SvgTemplate PATH_CURVE = SvgTemplate.compile(" C %.2f %.2f, %.2f %.2f, %.2f %.2f");
+
+    private static final SvgTemplate PATH_CLOSE = SvgTemplate.compile(" L %.2f %d L %d %d Z");
+
     private String buildSmoothPath(List<Point> points, boolean closePath, int closeY, int closeXStart, int closeXEnd) {
         if (points.isEmpty())
             return "";
 
-        StringBuilder path = new StringBuilder();
-        path.append(String.format(java.util.Locale.US, "M %.2f %.2f", points.get(0).x, points.get(0).y));
+        // ~45 chars por segmento C
+        StringBuilder path = new StringBuilder(points.size() * 48 + 32);
+        PATH_MOVE.appendTo(path)
+                .dec(points.get(0).x)
+                .dec(points.get(0).y)
+                .end();
 
         for (int i = 0; i < points.size() - 1; i++) {
             Point p0 = (i > 0) ? points.get(i - 1) : points.get(0);
@@ -922,19 +1110,56 @@ public class SvgService {
             double cp2x = p2.x - (p3.x - p1.x) * tension;
             double cp2y = p2.y - (p3.y - p1.y) * tension;
 
-            path.append(String.format(java.util.Locale.US,
-                    " C %.2f %.2f, %.2f %.2f, %.2f %.2f",
-                    cp1x, cp1y, cp2x, cp2y, p2.x, p2.y));
+            PATH_CURVE.appendTo(path)
+                    .dec(cp1x)
+                    .dec(cp1y)
+                    .dec(cp2x)
+                    .dec(cp2y)
+                    .dec(p2.x)
+                    .dec(p2.y)
+                    .end();
         }
 
         if (closePath) {
-            path.append(String.format(java.util.Locale.US, " L %.2f %d L %d %d Z",
-                    (double) closeXEnd, closeY, closeXStart, closeY));
+            PATH_CLOSE.appendTo(path)
+                    .dec(closeXEnd)
+                    .num(closeY)
+                    .num(closeXStart)
+                    .num(closeY)
+                    .end();
         }
 
         return path.toString();
     }
 
+    private static final SvgTemplate TOOLTIP_HEADER = SvgTemplate.compile(
+            "<text x='0' y='%d' text-anchor='middle' class='tooltip-header' font-weight='bold'>%s</text>");
+
+    private static final SvgTemplate TOOLTIP_COMMITS = SvgTemplate.compile(
+            "<text x='0' y='%d' text-anchor='middle' class='tooltip-text' fill='#%s'>Commits: %d</text>");
+
+    private static final SvgTemplate TOOLTIP_TIME = SvgTemplate.compile(
+            "<text x='0' y='%d' text-anchor='middle' class='tooltip-text' fill='#%s'>Time: %s</text>");
+
+    private static final SvgTemplate INTERACTIVE_POINT = SvgTemplate.compile("""
+            <g class="point-group" transform="translate(%.2f, %.2f)">
+                <!-- Hitbox invisível maior -->
+                <circle cx="0" cy="0" r="15" fill="transparent" />
+
+                <!-- Ponto visível -->
+                <circle cx="0" cy="0" r="5" fill="#%s" stroke="#%s" stroke-width="2" class="visible-point point-anim" style="animation-delay: %.2fs" />
+
+                <!-- Tooltip Container -->
+                <g class="tooltip-container" transform="translate(%d, %d)">
+                    <!-- Fundo do Modal -->
+                    <rect x="%d" y="0" width="%d" height="%d" class="tooltip-box" />
+
+                    <!-- Textos (Já posicionados com Y absoluto) -->
+                    %s
+                </g>
+            </g>
+            """);
+
     private String generateInteractivePoint(
             double x, double y,
             String pointColor, String strokeColor,
@@ -947,25 +1172,30 @@ public class SvgService {
         int currentY = 18;
 
         // cabeçalho (Data)
-        tooltipContent.append(String.format(
-                "<text x='0' y='%d' text-anchor='middle' class='tooltip-header' font-weight='bold'>%s</text>",
-                currentY, date));
+        tooltipContent.append(TOOLTIP_HEADER.writer()
+                .num(currentY)
+                .str(date)
+                .render());
 
         currentY += 20;
 
         // linha de commits
         if (commits >= 0) {
-            tooltipContent.append(String.format(
-                    "<text x='0' y='%d' text-anchor='middle' class='tooltip-text' fill='#%s'>Commits: %d</text>",
-                    currentY, commitTextColor != null ? commitTextColor : "c9d1d9", commits));
+            tooltipContent.append(TOOLTIP_COMMITS.writer()
+                    .num(currentY)
+                    .str(commitTextColor != null ? commitTextColor : "c9d1d9")
+                    .num(commits)
+                    .render());
             currentY += 16;
         }
 
         // linha de tempo
         if (time != null) {
-            tooltipContent.append(String.format(
-                    "<text x='0' y='%d' text-anchor='middle' class='tooltip-text' fill='#%s'>Time: %s</text>",
-                    currentY, wakaTextColor != null ? wakaTextColor : "c9d1d9", time));
+            tooltipContent.append(TOOLTIP_TIME.writer()
+                    .num(currentY)
+                    .str(wakaTextColor != null ? wakaTextColor : "c9d1d9")
+                    .str(time)
+                    .render());
             currentY += 16;
         }
 
@@ -984,31 +1214,39 @@ public class SvgService {
             boxY = 20;
         }
 
-        return String.format(java.util.Locale.US,
-                """
-                        <g class="point-group" transform="translate(%.2f, %.2f)">
-                            <!-- Hitbox invisível maior -->
-                            <circle cx="0" cy="0" r="15" fill="transparent" />
+        return INTERACTIVE_POINT.writer()
+                .dec(x)
+                .dec(y)
+                .str(pointColor)
+                .str(strokeColor)
+                .dec(1.0 + (index * 0.1))
+                .num(xOffset)
+                .num(boxY)
+                .num(-boxWidth / 2)
+                .num(boxWidth)
+                .num(boxHeight)
+                .str(tooltipContent)
+                .render();
+    }
 
-                            <!-- Ponto visível -->
-                            <circle cx="0" cy="0" r="5" fill="#%s" stroke="#%s" stroke-width="2" class="visible-point point-anim" style="animation-delay: %.2fs" />
+    private static final SvgTemplate LIST_INITIAL = SvgTemplate.compile("""
+            <circle cx='16' cy='16' r='16' fill='#%s' fill-opacity='0.5'/>
+            <text x='16' y='21' text-anchor='middle' fill='#fff' font-weight='bold' font-size='14' font-family='Arial'>%s</text>
+            """);
 
-                            <!-- Tooltip Container -->
-                            <g class="tooltip-container" transform="translate(%d, %d)">
-                                <!-- Fundo do Modal -->
-                                <rect x="%d" y="0" width="%d" height="%d" class="tooltip-box" />
+    private static final SvgTemplate LIST_IMAGE_SLICE = SvgTemplate.compile(
+            "<image width='32' height='32' href='%s' clip-path='url(#%s)' preserveAspectRatio='xMidYMid slice' />");
 
-                                <!-- Textos (Já posicionados com Y absoluto) -->
-                                %s
-                            </g>
-                        </g>
-                        """,
-                x, y,
-                pointColor, strokeColor, 1.0 + (index * 0.1),
-                xOffset, boxY,
-                -boxWidth / 2, boxWidth, boxHeight,
-                tooltipContent.toString());
-    }
+    private static final SvgTemplate LIST_IMAGE = SvgTemplate.compile(
+            "<image width='32' height='32' href='%s' clip-path='url(#%s)' />");
+
+    private static final SvgTemplate LIST_ITEM = SvgTemplate.compile("""
+                <g transform="translate(%d, %d)">
+                    %s
+                    <text x="42" y="14" class="stat-title">%s</text>
+                    <text x="42" y="28" class="stat-sub">%s</text>
+                </g>
+            """);
 
     private String renderList(List<SimpleItem> items, int x, int yStart, boolean isCircle, String titleColor,
             String subColor, boolean showExtra) {
@@ -1023,20 +1261,21 @@ public class SvgService {
                 if (isCircle) {
                     char initial = (item.title() == null || item.title().isEmpty()) ? '?' : item.title().charAt(0);
                     String color = String.format("%06x", (item.title().hashCode() & 0xFFFFFF));
-                    imgContent = String.format(
-                            """
-                                    <circle cx='16' cy='16' r='16' fill='#%s' fill-opacity='0.5'/>
-                                    <text x='16' y='21' text-anchor='middle' fill='#fff' font-weight='bold' font-size='14' font-family='Arial'>%s</text>
-                                    """,
-                            color, initial);
+                    imgContent = LIST_INITIAL.writer()
+                            .str(color)
+                            .str(initial)
+                            .render();
                 } else {
-                    imgContent = String.format(
-                            "<image width='32' height='32' href='%s' clip-path='url(#%s)' preserveAspectRatio='xMidYMid slice' />",
-                            item.imageBase64(), clipId);
+                    imgContent = LIST_IMAGE_SLICE.writer(item.imageBase64().length())
+                            .str(item.imageBase64())
+                            .str(clipId)
+                            .render();
                 }
             } else {
-                imgContent = String.format("<image width='32' height='32' href='%s' clip-path='url(#%s)' />",
-                        item.imageBase64(), clipId);
+                imgContent = LIST_IMAGE.writer(item.imageBase64().length())
+                        .str(item.imageBase64())
+                        .str(clipId)
+                        .render();
             }
 
             String subtitle = item.subtitle();
@@ -1044,15 +1283,13 @@ public class SvgService {
                 subtitle = item.extraInfo();
             }
 
-            sb.append(String.format("""
-                        <g transform="translate(%d, %d)">
-                            %s
-                            <text x="42" y="14" class="stat-title">%s</text>
-                            <text x="42" y="28" class="stat-sub">%s</text>
-                        </g>
-                    """, x, y, imgContent,
-                    escapeHtml(truncate(item.title(), 20)),
-                    escapeHtml(truncate(subtitle, 25))));
+            sb.append(LIST_ITEM.writer(imgContent.length())
+                    .num(x)
+                    .num(y)
+                    .str(imgContent)
+                    .str(escapeHtml(truncate(item.title(), 20)))
+                    .str(escapeHtml(truncate(subtitle, 25)))
+                    .render());
 
             y += 42;
         }
@@ -1060,23 +1297,39 @@ public class SvgService {
     }
 
     // --- Equalizador Animado ---
+    private static final SvgTemplate EQUALIZER = SvgTemplate.compile("""
+                <g transform="translate(%d, %d)">
+                    <rect width="3" height="10" fill="#%s"><animate attributeName="height" values="10;20;10" dur="0.8s" repeatCount="indefinite" /></rect>
+                    <rect x="5" width="3" height="18" fill="#%s"><animate attributeName="height" values="18;8;18" dur="0.8s" repeatCount="indefinite" begin="0.1s" /></rect>
+                    <rect x="10" width="3" height="12" fill="#%s"><animate attributeName="height" values="12;22;12" dur="0.8s" repeatCount="indefinite" begin="0.2s" /></rect>
+                    <rect x="15" width="3" height="16" fill="#%s"><animate attributeName="height" values="16;6;16" dur="0.8s" repeatCount="indefinite" begin="0.3s" /></rect>
+                </g>
+            """);
+
     private String renderEqualizer(String color, int x, int y) {
-        return """
-                    <g transform="translate(%d, %d)">
-                        <rect width="3" height="10" fill="#%s"><animate attributeName="height" values="10;20;10" dur="0.8s" repeatCount="indefinite" /></rect>
-                        <rect x="5" width="3" height="18" fill="#%s"><animate attributeName="height" values="18;8;18" dur="0.8s" repeatCount="indefinite" begin="0.1s" /></rect>
-                        <rect x="10" width="3" height="12" fill="#%s"><animate attributeName="height" values="12;22;12" dur="0.8s" repeatCount="indefinite" begin="0.2s" /></rect>
-                        <rect x="15" width="3" height="16" fill="#%s"><animate attributeName="height" values="16;6;16" dur="0.8s" repeatCount="indefinite" begin="0.3s" /></rect>
-                    </g>
-                """
-                .formatted(x, y, color, color, color, color);
+        return EQUALIZER.writer()
+                .num(x)
+                .num(y)
+                .str(color)
+                .str(color)
+                .str(color)
+                .str(color)
+                .render();
     }
 
     // --- Disco Padrão ---
+    private static final SvgTemplate DEFAULT_DISK = SvgTemplate.compile(
+            "<circle cx='%d' cy='%d' r='%d' fill='#222' /><circle cx='%d' cy='%d' r='%d' fill='#111' />");
+
     private String renderDefaultDisk(int cx, int cy, int r) {
-        return String.format(
-                "<circle cx='%d' cy='%d' r='%d' fill='#222' /><circle cx='%d' cy='%d' r='%d' fill='#111' />", cx, cy, r,
-                cx, cy, r / 3);
+        return DEFAULT_DISK.writer()
+                .num(cx)
+                .num(cy)
+                .num(r)
+                .num(cx)
+                .num(cy)
+                .num(r / 3)
+                .render();
     }
 
     // --- UTILS ---
@@ -1099,7 +1352,7 @@ public class SvgService {
 
     private String kFormatter(int num) {
         if (num > 999) {
-            return String.format("%.1fk", num / 1000.0);
+            return SvgNumbers.appendFixed(new StringBuilder(8), num / 1000.0, 1).append('k').toString();
         }
         return String.valueOf(num);
     }
@@ -0,0 +1,173 @@
+package com.n33miaz.stats.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// template pré-compilado: o texto fixo é quebrado uma única vez em trechos + slots tipados,
+// e a renderização só concatena valores num buffer já dimensionado (sem reparsear o formato)
+public final class SvgTemplate {
+
+    public enum Kind {
+        STRING, INT, DECIMAL
+    }
+
+    private final String source;
+    private final String[] literals;
+    private final Kind[] kinds;
+    private final int[] precisions;
+    private final int literalLength;
+
+    private SvgTemplate(String source, String[] literals, Kind[] kinds, int[] precisions) {
+        this.source = source;
+        this.literals = literals;
+        this.kinds = kinds;
+        this.precisions = precisions;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    // aceita o mesmo subconjunto de String.format usado nos cards: %s, %d, %f, %.Nf e %%
+    public static SvgTemplate compile(String format) {
+        List<String> literals = new ArrayList<>();
+        List<Kind> kinds = new ArrayList<>();
+        List<Integer> precisions = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+
+            if (i >= format.length()) {
+                throw new IllegalArgumentException("Formato incompleto no fim do template");
+            }
+
+            char spec = format.charAt(i++);
+            int precision = 6;
+            if (spec == '.') {
+                int start = i;
+                while (i < format.length() && Character.isDigit(format.charAt(i))) {
+                    i++;
+                }
+                if (start == i || i >= format.length() || format.charAt(i) != 'f') {
+                    throw new IllegalArgumentException("Formato não suportado em " + (start - 2));
+                }
+                precision = Integer.parseInt(format.substring(start, i));
+                spec = format.charAt(i++);
+            }
+
+            Kind kind = switch (spec) {
+                case '%' -> null;
+                case 's' -> Kind.STRING;
+                case 'd' -> Kind.INT;
+                case 'f' -> Kind.DECIMAL;
+                default -> throw new IllegalArgumentException("Formato não suportado: %" + spec);
+            };
+
+            if (kind == null) {
+                literal.append('%');
+                continue;
+            }
+
+            literals.add(literal.toString());
+            literal.setLength(0);
+            kinds.add(kind);
+            precisions.add(precision);
+        }
+        literals.add(literal.toString());
+
+        return new SvgTemplate(
+                format,
+                literals.toArray(String[]::new),
+                kinds.toArray(Kind[]::new),
+                precisions.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public Writer writer() {
+        return writer(0);
+    }
+
+    // extraCapacity: tamanho esperado dos valores (ex.: imagens em base64)
+    public Writer writer(int extraCapacity) {
+        return new Writer(new StringBuilder(literalLength + kinds.length * 8 + extraCapacity));
+    }
+
+    // escreve direto num buffer existente (ex.: fragmentos repetidos num loop)
+    public Writer appendTo(StringBuilder out) {
+        return new Writer(out);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public int slotCount() {
+        return kinds.length;
+    }
+
+    public Kind kind(int slot) {
+        return kinds[slot];
+    }
+
+    public int precision(int slot) {
+        return precisions[slot];
+    }
+
+    public final class Writer {
+
+        private final StringBuilder out;
+        private int slot;
+
+        private Writer(StringBuilder out) {
+            this.out = out;
+        }
+
+        // aceita StringBuilder direto, sem o toString() intermediário
+        public Writer str(CharSequence value) {
+            next(Kind.STRING).append(value);
+            return this;
+        }
+
+        public Writer str(char value) {
+            next(Kind.STRING).append(value);
+            return this;
+        }
+
+        public Writer num(int value) {
+            next(Kind.INT).append(value);
+            return this;
+        }
+
+        public Writer dec(double value) {
+            SvgNumbers.appendFixed(next(Kind.DECIMAL), value, precisions[slot - 1]);
+            return this;
+        }
+
+        public String render() {
+            return end().toString();
+        }
+
+        // fecha o template no buffer recebido em appendTo, sem gerar String
+        public StringBuilder end() {
+            if (slot != kinds.length) {
+                throw new IllegalStateException(
+                        "Template esperava " + kinds.length + " valores, recebeu " + slot);
+            }
+            return out.append(literals[slot]);
+        }
+
+        private StringBuilder next(Kind kind) {
+            if (slot >= kinds.length || kinds[slot] != kind) {
+                throw new IllegalStateException("Slot " + slot + " não aceita " + kind);
+            }
+            return out.append(literals[slot++]);
+        }
+    }
+}
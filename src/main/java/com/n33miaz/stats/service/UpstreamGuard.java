@@ -0,0 +1,294 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.config.UpstreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// isolamento por upstream: bulkhead (chamadas simultâneas) + circuit breaker por taxa de erro/lentidão.
+// com o circuito aberto a chamada falha na hora com UnavailableException e o card cai no fallback
+// daquele trecho, sem ocupar conexão nem esperar timeout
+@Component
+public class UpstreamGuard implements MeterBinder {
+
+    private final UpstreamProperties properties;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    public UpstreamGuard(UpstreamProperties properties) {
+        this.properties = properties;
+    }
+
+    public <T> Mono<T> protect(String upstream, Mono<T> call) {
+        return Mono.defer(() -> {
+            Guard guard = guard(upstream);
+
+            if (!guard.tryEnterBulkhead()) {
+                guard.rejected("bulkhead_full");
+                return Mono.error(new UnavailableException(upstream, "bulkhead cheio"));
+            }
+            if (!guard.breaker.tryAcquire()) {
+                guard.leaveBulkhead();
+                guard.rejected("circuit_open");
+                return Mono.error(new UnavailableException(upstream, "circuito aberto"));
+            }
+
+            long start = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            guard.breaker.onResult(false, System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            guard.breaker.onResult(countsAsFailure(error), System.nanoTime() - start);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // cancelado por prazo externo (timeout do card): conta só se já passou do limite de lentidão
+                        if (recorded.compareAndSet(false, true)) {
+                            guard.breaker.onCancel(System.nanoTime() - start);
+                        }
+                    })
+                    .doFinally(signal -> guard.leaveBulkhead());
+        });
+    }
+
+    public CircuitState state(String upstream) {
+        return guard(upstream).breaker.state();
+    }
+
+    // 4xx (usuário inexistente, token sem acesso) e limite de taxa não indicam upstream doente
+    private static boolean countsAsFailure(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            return status >= 500 || status == 408;
+        }
+        return !(error instanceof GithubTokenPool.RateLimitedException);
+    }
+
+    private Guard guard(String upstream) {
+        Guard guard = guards.get(upstream);
+        if (guard != null) {
+            return guard;
+        }
+        return guards.computeIfAbsent(upstream, name -> {
+            Guard created = new Guard(name, properties.client(name));
+            MeterRegistry current = registry;
+            if (current != null) {
+                created.bindTo(current);
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        properties.getClients().keySet().forEach(this::guard);
+        guards.values().forEach(guard -> guard.bindTo(registry));
+    }
+
+    public enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    // --- BULKHEAD + MÉTRICAS ---
+
+    private static final class Guard {
+
+        final String upstream;
+        final int maxConcurrentCalls;
+        final CircuitBreaker breaker;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+        volatile MeterRegistry registry;
+        final AtomicBoolean bound = new AtomicBoolean();
+
+        Guard(String upstream, UpstreamProperties.Client config) {
+            this.upstream = upstream;
+            this.maxConcurrentCalls = config.getMaxConcurrentCalls();
+            this.breaker = new CircuitBreaker(config);
+        }
+
+        boolean tryEnterBulkhead() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= maxConcurrentCalls) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void leaveBulkhead() {
+            inFlight.decrementAndGet();
+        }
+
+        void rejected(String reason) {
+            MeterRegistry current = registry;
+            if (current != null) {
+                rejections.computeIfAbsent(reason, r -> Counter.builder("upstream.rejected")
+                        .description("Chamadas recusadas localmente pelo bulkhead ou circuit breaker")
+                        .tag("upstream", upstream)
+                        .tag("reason", r)
+                        .register(current))
+                        .increment();
+            }
+        }
+
+        void bindTo(MeterRegistry registry) {
+            if (!bound.compareAndSet(false, true)) {
+                return;
+            }
+            this.registry = registry;
+            Gauge.builder("upstream.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("Estado do circuit breaker (0 fechado, 1 aberto, 2 meio-aberto)")
+                    .tag("upstream", upstream)
+                    .register(registry);
+            Gauge.builder("upstream.bulkhead.inflight", inFlight, AtomicInteger::get)
+                    .description("Chamadas simultâneas dentro do bulkhead")
+                    .tag("upstream", upstream)
+                    .register(registry);
+        }
+    }
+
+    // --- CIRCUIT BREAKER ---
+
+    // janela circular com o resultado das últimas N chamadas
+    static final class CircuitBreaker {
+
+        private final int windowSize;
+        private final int minimumCalls;
+        private final int failureRateThreshold;
+        private final int slowCallRateThreshold;
+        private final long slowCallNanos;
+        private final long openNanos;
+        private final int halfOpenCalls;
+
+        private final boolean[] failures;
+        private final boolean[] slows;
+        private int next;
+        private int calls;
+        private int failureCount;
+        private int slowCount;
+
+        private CircuitState state = CircuitState.CLOSED;
+        private long openedAt;
+        private int halfOpenPermits;
+
+        CircuitBreaker(UpstreamProperties.Client config) {
+            this.windowSize = Math.max(1, config.getSlidingWindowSize());
+            this.minimumCalls = Math.max(1, Math.min(config.getMinimumCalls(), windowSize));
+            this.failureRateThreshold = config.getFailureRateThreshold();
+            this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+            this.slowCallNanos = config.getSlowCallDuration().toNanos();
+            this.openNanos = config.getOpenDuration().toNanos();
+            this.halfOpenCalls = Math.max(1, config.getHalfOpenCalls());
+            this.failures = new boolean[windowSize];
+            this.slows = new boolean[windowSize];
+        }
+
+        synchronized CircuitState state() {
+            return state;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == CircuitState.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                // prazo do circuito aberto passou: deixa algumas chamadas de teste
+                transition(CircuitState.HALF_OPEN);
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    return false;
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        }
+
+        synchronized void onResult(boolean failure, long elapsedNanos) {
+            record(failure, elapsedNanos >= slowCallNanos);
+        }
+
+        synchronized void onCancel(long elapsedNanos) {
+            if (elapsedNanos >= slowCallNanos) {
+                record(false, true);
+            } else if (state == CircuitState.HALF_OPEN) {
+                halfOpenPermits++;
+            }
+        }
+
+        private void record(boolean failure, boolean slow) {
+            if (calls == windowSize) {
+                failureCount -= failures[next] ? 1 : 0;
+                slowCount -= slows[next] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failures[next] = failure;
+            slows[next] = slow;
+            failureCount += failure ? 1 : 0;
+            slowCount += slow ? 1 : 0;
+            next = (next + 1) % windowSize;
+
+            int required = state == CircuitState.HALF_OPEN ? halfOpenCalls : minimumCalls;
+            if (calls < required) {
+                return;
+            }
+            boolean unhealthy = failureCount * 100 >= failureRateThreshold * calls
+                    || slowCount * 100 >= slowCallRateThreshold * calls;
+            if (unhealthy) {
+                transition(CircuitState.OPEN);
+            } else if (state == CircuitState.HALF_OPEN) {
+                transition(CircuitState.CLOSED);
+            }
+        }
+
+        // estado exportado no gauge upstream.circuit.state
+        private void transition(CircuitState target) {
+            state = target;
+            // cada estado começa com a janela limpa
+            calls = 0;
+            next = 0;
+            failureCount = 0;
+            slowCount = 0;
+            if (target == CircuitState.OPEN) {
+                openedAt = System.nanoTime();
+            }
+            halfOpenPermits = target == CircuitState.HALF_OPEN ? halfOpenCalls : 0;
+        }
+    }
+
+    // chamada recusada sem ir ao upstream (circuito aberto ou bulkhead cheio)
+    public static class UnavailableException extends RuntimeException {
+
+        private final String upstream;
+
+        public UnavailableException(String upstream, String reason) {
+            super("Upstream " + upstream + " indisponível: " + reason);
+            this.upstream = upstream;
+        }
+
+        public String getUpstream() {
+            return upstream;
+        }
+    }
+}
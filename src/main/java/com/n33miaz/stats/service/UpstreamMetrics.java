@@ -0,0 +1,63 @@
+package com.n33miaz.stats.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+// latência e status de cada chamada externa (GitHub, WakaTime, Last.fm, imagens)
+@Component
+public class UpstreamMetrics {
+
+    private final MeterRegistry registry;
+
+    public UpstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // deve envolver a chamada crua, antes de qualquer onErrorResume/onErrorReturn.
+    // sucesso só é visto como corpo decodificado (200, 304 condicional, outros 2xx): status fica "none",
+    // o código HTTP só aparece nas falhas
+    public <T> Mono<T> timed(String upstream, String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call
+                    .doOnSuccess(value -> stop(sample, upstream, operation, "success", "none"))
+                    .doOnError(e -> {
+                        String status = status(e);
+                        stop(sample, upstream, operation, outcome(e), status);
+                        registry.counter("upstream.errors",
+                                "upstream", upstream,
+                                "operation", operation,
+                                "status", status).increment();
+                    })
+                    .doOnCancel(() -> stop(sample, upstream, operation, "cancelled", "none"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String upstream, String operation, String outcome, String status) {
+        sample.stop(Timer.builder("upstream.requests")
+                .description("Chamadas HTTP aos serviços externos")
+                .tag("upstream", upstream)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .register(registry));
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        return "error";
+    }
+
+    // código HTTP quando houver resposta; senão o tipo da falha (timeout, conexão...)
+    private static String status(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return String.valueOf(response.getStatusCode().value());
+        }
+        return e.getClass().getSimpleName();
+    }
+}
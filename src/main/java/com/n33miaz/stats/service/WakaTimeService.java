@@ -1,14 +1,23 @@
 package com.n33miaz.stats.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.n33miaz.stats.config.UpstreamClientFactory;
 import com.n33miaz.stats.dto.WakaTimeAllTimeResponse;
 import com.n33miaz.stats.dto.WakaTimeSummaryResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
 
 @Service
 public class WakaTimeService {
@@ -18,9 +27,31 @@ public class WakaTimeService {
 
     private final WebClient webClient;
 
-    public WakaTimeService() {
-        this.webClient = WebClient.builder()
-                .baseUrl("https://wakatime.com/api/v1")
+    @Autowired
+    private RequestCoalescer coalescer;
+
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
+    // circuito aberto/bulkhead cheio cai no mesmo Mono.empty() dos erros: card sem o trecho do WakaTime,
+    // marcado como parcial e fora do cache
+    @Autowired
+    private UpstreamGuard upstreamGuard;
+
+    // usuários sem conta no WakaTime (404): sem nova chamada até expirar. sem conta é resposta válida
+    // (sem dados), vai para o cache como qualquer outra; só erro transitório vira Mono.empty()
+    private final Cache<String, Boolean> missingUsers;
+
+    private static final WakaTimeSummaryResponse NO_SUMMARIES = new WakaTimeSummaryResponse(List.of());
+    private static final WakaTimeAllTimeResponse NO_ALL_TIME = new WakaTimeAllTimeResponse(null);
+
+    public WakaTimeService(
+            UpstreamClientFactory upstreamClientFactory,
+            @Value("${cache.negative.not-found-ttl:600}") long notFoundTtlSeconds) {
+        this.webClient = upstreamClientFactory.builder("wakatime").build();
+        this.missingUsers = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(notFoundTtlSeconds))
                 .build();
     }
 
@@ -29,31 +60,58 @@ public class WakaTimeService {
         LocalDate start = end.minusDays(days);
 
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        List<String> variables = List.of(username, start.format(fmt), end.format(fmt));
 
-        return webClient.get()
-                .uri(uri -> uri.path("/users/{user}/summaries")
-                        .queryParam("api_key", apiKey)
-                        .queryParam("start", start.format(fmt))
-                        .queryParam("end", end.format(fmt))
-                        .build(username))
-                .retrieve()
-                .bodyToMono(WakaTimeSummaryResponse.class)
+        if (isMissing(username)) {
+            return Mono.just(NO_SUMMARIES);
+        }
+        return coalescer.coalesce("wakatime", "summaries", variables, () -> upstreamGuard
+                .protect("wakatime", upstreamMetrics.timed("wakatime", "summaries", webClient.get()
+                        .uri(uri -> uri.path("/users/{user}/summaries")
+                                .queryParam("api_key", apiKey)
+                                .queryParam("start", start.format(fmt))
+                                .queryParam("end", end.format(fmt))
+                                .build(username))
+                        .retrieve()
+                        .bodyToMono(WakaTimeSummaryResponse.class)))
                 .onErrorResume(e -> {
+                    if (markIfMissing(username, e)) {
+                        return Mono.just(NO_SUMMARIES);
+                    }
                     System.err.println("Erro WakaTime: " + e.getMessage());
                     return Mono.empty();
-                });
+                }));
     }
 
     public Mono<WakaTimeAllTimeResponse> getAllTimeStats(String username) {
-        return webClient.get()
-                .uri(uri -> uri.path("/users/{user}/all_time_since_today")
-                        .queryParam("api_key", apiKey)
-                        .build(username))
-                .retrieve()
-                .bodyToMono(WakaTimeAllTimeResponse.class)
+        if (isMissing(username)) {
+            return Mono.just(NO_ALL_TIME);
+        }
+        return coalescer.coalesce("wakatime", "all_time_since_today", username, () -> upstreamGuard
+                .protect("wakatime", upstreamMetrics.timed("wakatime", "all_time", webClient.get()
+                        .uri(uri -> uri.path("/users/{user}/all_time_since_today")
+                                .queryParam("api_key", apiKey)
+                                .build(username))
+                        .retrieve()
+                        .bodyToMono(WakaTimeAllTimeResponse.class)))
                 .onErrorResume(e -> {
+                    if (markIfMissing(username, e)) {
+                        return Mono.just(NO_ALL_TIME);
+                    }
                     System.err.println("Erro WakaTime All Time: " + e.getMessage());
                     return Mono.empty();
-                });
+                }));
+    }
+
+    private boolean isMissing(String username) {
+        return missingUsers.getIfPresent(username.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    private boolean markIfMissing(String username, Throwable error) {
+        if (error instanceof WebClientResponseException e && e.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+            missingUsers.put(username.toLowerCase(Locale.ROOT), Boolean.TRUE);
+            return true;
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.n33miaz.stats.service;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+// equivalente ao expireAfterWrite, mas com política variável: o snapshot em disco consegue ler o tempo
+// restante de cada entrada e restaurá-la com o mesmo prazo (CacheSnapshotService)
+record WriteExpiry<K, V>(Duration ttl) implements Expiry<K, V> {
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
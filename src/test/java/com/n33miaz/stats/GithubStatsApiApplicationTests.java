@@ -3,7 +3,9 @@ package com.n33miaz.stats;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"cache.snapshot.enabled=false",
+		"lastfm.artist-images.file=${java.io.tmpdir}/github-stats-api-test/artist-images.tsv" })
 class GithubStatsApiApplicationTests {
 
 	@Test
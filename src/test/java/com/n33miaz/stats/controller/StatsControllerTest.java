@@ -0,0 +1,145 @@
+package com.n33miaz.stats.controller;
+
+import com.n33miaz.stats.dto.GithubResponse;
+import com.n33miaz.stats.service.GithubService;
+import com.n33miaz.stats.service.SvgService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"cache.snapshot.enabled=false",
+		"lastfm.artist-images.file=${java.io.tmpdir}/github-stats-api-test/artist-images.tsv" })
+@AutoConfigureWebTestClient
+class StatsControllerTest {
+
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\">"
+			+ "<rect width=\"10\" height=\"10\" fill=\"#2f80ed\"/>".repeat(100) + "</svg>";
+
+	private static final String TINY_SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>";
+
+	@Autowired
+	private WebTestClient client;
+
+	@MockitoBean
+	private GithubService githubService;
+
+	@MockitoBean
+	private SvgService svgService;
+
+	@BeforeEach
+	void stubUpstreams() {
+		when(githubService.fetchRepository(anyString(), anyString())).thenAnswer(invocation -> Mono.just(
+				new GithubResponse.Repository(invocation.getArgument(1), "", 1, 0, null, null)));
+		// repositório "tiny": card abaixo do limite do gzip
+		when(svgService.generateRepoCard(any(), any(), anyBoolean(), anyBoolean())).thenAnswer(invocation -> {
+			GithubResponse.Repository repo = invocation.getArgument(0);
+			return repo.name().equals("tiny") ? TINY_SVG : SVG;
+		});
+	}
+
+	@Test
+	void matchingEtagIsNotModified() {
+		String etag = etag("etag-strong");
+
+		for (String ifNoneMatch : new String[] { etag, "W/" + etag, "*", "\"other\", " + etag }) {
+			client.get().uri("/api/pin?username=etag-strong&repo=repo")
+					.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)
+					.exchange()
+					.expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED)
+					.expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+					.expectHeader().value(HttpHeaders.CACHE_CONTROL,
+							value -> assertThat(value).startsWith("public, max-age="))
+					.expectBody().isEmpty();
+		}
+	}
+
+	@Test
+	void mismatchingEtagGetsBody() {
+		String etag = etag("etag-mismatch");
+
+		client.get().uri("/api/pin?username=etag-mismatch&repo=repo")
+				.header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+				.expectBody(String.class).isEqualTo(SVG);
+	}
+
+	@Test
+	void gzipIsServedWhenAccepted() throws Exception {
+		String etag = etag("gzip-accepted");
+
+		byte[] body = client.get().uri("/api/pin?username=gzip-accepted&repo=repo")
+				.header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+				.expectHeader().valueEquals(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + "-gz\"")
+				.expectHeader().valueEquals(HttpHeaders.VARY, "Accept-Encoding")
+				.expectBody(byte[].class).returnResult().getResponseBody();
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(SVG);
+		}
+	}
+
+	@Test
+	void identityWhenGzipRefusedOrNotAsked() {
+		String etag = etag("gzip-refused");
+
+		for (String acceptEncoding : new String[] { "gzip;q=0", "identity", null }) {
+			client.get().uri("/api/pin?username=gzip-refused&repo=repo")
+					.headers(headers -> {
+						if (acceptEncoding != null) {
+							headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+						}
+					})
+					.exchange()
+					.expectStatus().isOk()
+					.expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+					.expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+					.expectHeader().valueEquals(HttpHeaders.VARY, "Accept-Encoding")
+					.expectBody(String.class).isEqualTo(SVG);
+		}
+	}
+
+	@Test
+	void tinyCardIsNeverGzipped() {
+		client.get().uri("/api/pin?username=gzip-tiny&repo=tiny")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+				.expectHeader().value(HttpHeaders.ETAG, value -> assertThat(value).doesNotEndWith("-gz\""))
+				.expectBody(String.class).isEqualTo(TINY_SVG);
+	}
+
+	private String etag(String username) {
+		String etag = client.get().uri("/api/pin?username=" + username + "&repo=repo")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(String.class)
+				.getResponseHeaders()
+				.getETag();
+		assertThat(etag).isNotNull();
+		return etag;
+	}
+}
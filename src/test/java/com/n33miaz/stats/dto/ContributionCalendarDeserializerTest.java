@@ -0,0 +1,72 @@
+package com.n33miaz.stats.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.n33miaz.stats.service.GithubService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContributionCalendarDeserializerTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void readsDaysFromGraphQlBodyAndSkipsUnusedFields() throws Exception {
+		String json = """
+				{
+				  "data": {
+				    "user": {
+				      "contributionsCollection": {
+				        "contributionCalendar": {
+				          "totalContributions": 9,
+				          "weeks": [
+				            { "contributionDays": [
+				              { "color": "#ebedf0", "contributionCount": 0, "date": "2024-12-30" },
+				              { "date": "2024-12-31", "contributionCount": 4, "color": "#40c463" }
+				            ] },
+				            { "firstDay": "2025-01-01", "contributionDays": [
+				              { "date": "2025-01-01", "contributionCount": 5, "weekday": 3, "extra": { "date": "1999-01-01", "contributionCount": 99 } }
+				            ] }
+				          ]
+				        }
+				      }
+				    }
+				  },
+				  "extensions": { "cost": [1, 2, 3] }
+				}
+				""";
+
+		ContributionCalendar calendar = mapper.readValue(json, ContributionCalendar.class);
+
+		assertThat(calendar.startEpochDay()).isEqualTo(LocalDate.of(2024, 12, 30).toEpochDay());
+		assertThat(calendar.size()).isEqualTo(3);
+		assertThat(calendar.countAt(0)).isZero();
+		assertThat(calendar.countAt(1)).isEqualTo(4);
+		assertThat(calendar.countAt(2)).isEqualTo(5);
+	}
+
+	@Test
+	void unknownUserFailsAsNotFound() {
+		String json = """
+				{ "data": { "user": null }, "errors": [ { "type": "NOT_FOUND", "message": "Could not resolve" } ] }
+				""";
+
+		assertThatThrownBy(() -> mapper.readValue(json, ContributionCalendar.class))
+				.isInstanceOf(GithubService.NotFoundException.class);
+	}
+
+	@Test
+	void rateLimitFailsAsTransientError() {
+		String json = """
+				{ "data": null, "errors": [ { "type": "RATE_LIMITED", "message": "API rate limit exceeded" } ] }
+				""";
+
+		assertThatThrownBy(() -> mapper.readValue(json, ContributionCalendar.class))
+				.isInstanceOf(GithubService.GraphQlException.class)
+				.extracting(e -> ((GithubService.GraphQlException) e).getType())
+				.isEqualTo("RATE_LIMITED");
+	}
+}
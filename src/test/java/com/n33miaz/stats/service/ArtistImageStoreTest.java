@@ -0,0 +1,47 @@
+package com.n33miaz.stats.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtistImageStoreTest {
+
+	@Test
+	void survivesRestartThroughFile(@TempDir Path dir) {
+		Path file = dir.resolve("artist-images.tsv");
+
+		ArtistImageStore first = new ArtistImageStore(3600, 100, file.toString());
+		first.put("Björk", "https://lastfm.freetls.fastly.net/i/u/300x300/homogenic.jpg");
+		first.put("Unknown Band", "");
+		first.save();
+
+		ArtistImageStore restarted = new ArtistImageStore(3600, 100, file.toString());
+		restarted.load();
+
+		assertThat(restarted.get("björk")).isEqualTo("https://lastfm.freetls.fastly.net/i/u/300x300/homogenic.jpg");
+		assertThat(restarted.get("Unknown Band")).isEmpty();
+		assertThat(restarted.get("Radiohead")).isNull();
+	}
+
+	@Test
+	void expiryCountsFromOriginalResolution(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("artist-images.tsv");
+		long now = Instant.now().getEpochSecond();
+		Files.write(file, List.of(
+				"radiohead\t" + (now - 7200) + "\thttps://example.com/old.jpg",
+				"massive attack\t" + (now - 60) + "\thttps://example.com/mezzanine.jpg",
+				"linha quebrada"));
+
+		ArtistImageStore store = new ArtistImageStore(3600, 100, file.toString());
+		store.load();
+
+		assertThat(store.get("Radiohead")).isNull();
+		assertThat(store.get("Massive Attack")).isEqualTo("https://example.com/mezzanine.jpg");
+	}
+}
@@ -0,0 +1,95 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.config.UpstreamClientFactory;
+import com.n33miaz.stats.config.UpstreamProperties;
+import com.n33miaz.stats.dto.ContributionCalendar;
+import com.n33miaz.stats.service.CardCacheService.CachedCard;
+import com.n33miaz.stats.service.CardCacheService.CardKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotServiceTest {
+
+	@Test
+	void restartKeepsEntriesWithOriginalExpiry(@TempDir Path dir) {
+		Path file = dir.resolve("cache-snapshot.bin");
+		CardKey key = CardKey.of(CardType.STATS, "n33miaz", "n33miaz", Map.of("title_color", "fff"), false, false);
+		CachedCard card = CachedCard.of("<svg>" + "x".repeat(2000) + "</svg>");
+
+		Caches first = caches(file);
+		first.cards().cards().put(key, card);
+		first.contributions().cache().synchronous().policy().expireVariably().orElseThrow()
+				.put("n33miaz", new ContributionCalendar(19000, new int[] { 1, 0, 3 }), 20, TimeUnit.MINUTES);
+		first.images().cache().put("abc-64", CompletableFuture.completedFuture("data:image/jpeg;base64,AAAA"));
+		first.snapshot().save();
+
+		Caches restarted = caches(file);
+		restarted.snapshot().restore();
+
+		CachedCard restored = restarted.cards().cards().getIfPresent(key);
+		assertThat(restored.svg()).isEqualTo(card.svg());
+		assertThat(restored.gzip()).isEqualTo(card.gzip());
+		assertThat(restored.etag()).isEqualTo(card.etag());
+		assertThat(restored.renderedAt()).isEqualTo(card.renderedAt().truncatedTo(ChronoUnit.MILLIS));
+
+		var calendars = restarted.contributions().cache().synchronous();
+		assertThat(calendars.getIfPresent("n33miaz").sumBetween(19000, 19002)).isEqualTo(4);
+		// prazo restante, não um TTL novo de 1h
+		assertThat(calendars.policy().expireVariably().orElseThrow().getExpiresAfter("n33miaz").orElseThrow())
+				.isLessThanOrEqualTo(Duration.ofMinutes(20));
+
+		assertThat(restarted.images().cache().synchronous().getIfPresent("abc-64"))
+				.isEqualTo("data:image/jpeg;base64,AAAA");
+	}
+
+	@Test
+	void corruptFileIsIgnored(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("cache-snapshot.bin");
+		Files.write(file, new byte[] { 1, 2, 3 });
+
+		Caches service = caches(file);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		service.snapshot().bindTo(registry);
+		service.snapshot().restore();
+
+		assertThat(service.cards().cards().estimatedSize()).isZero();
+		assertThat(registry.get("cache.snapshot.failures").tag("operation", "restore").functionCounter().count())
+				.isEqualTo(1.0);
+	}
+
+	@Test
+	void missingDirectoryIsCreatedAtStartup(@TempDir Path dir) {
+		Path file = dir.resolve("data/nested/cache-snapshot.bin");
+
+		caches(file);
+
+		assertThat(file.getParent()).isDirectory();
+	}
+
+	private record Caches(CardCacheService cards, ContributionSnapshotService contributions, ImageService images,
+			CacheSnapshotService snapshot) {
+	}
+
+	private static Caches caches(Path file) {
+		CardCacheService cards = new CardCacheService(new MockEnvironment(), 1 << 20, 100, 3600, 600, 60);
+		ContributionSnapshotService contributions = new ContributionSnapshotService(3600, 100);
+		ImageService images = new ImageService(new UpstreamClientFactory(new UpstreamProperties()),
+				new UpstreamGuard(new UpstreamProperties()), Schedulers.boundedElastic(), 2, 0.8f, 1 << 20,
+				60, 60, "", 60, 1 << 20);
+		return new Caches(cards, contributions, images,
+				new CacheSnapshotService(cards, contributions, images, true, file.toString()));
+	}
+}
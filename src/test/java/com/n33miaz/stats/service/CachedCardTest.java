@@ -0,0 +1,37 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.service.CardCacheService.CachedCard;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedCardTest {
+
+	@Test
+	void precomputesGzipVariantOnce() throws Exception {
+		String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\">"
+				+ "<rect width=\"10\" height=\"10\" fill=\"#2f80ed\"/>".repeat(200) + "</svg>";
+
+		CachedCard card = CachedCard.of(svg);
+
+		assertThat(card.hasGzip()).isTrue();
+		assertThat(card.gzip().length).isLessThan(card.svg().length / 5);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(card.gzip()))) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(svg);
+		}
+		assertThat(card.etag()).isEqualTo(CachedCard.of(svg).etag());
+		assertThat(card.gzipEtag()).isNotEqualTo(card.etag()).endsWith("-gz\"");
+	}
+
+	@Test
+	void skipsGzipForTinyCards() {
+		CachedCard card = CachedCard.of("<svg/>");
+
+		assertThat(card.hasGzip()).isFalse();
+		assertThat(card.weight()).isEqualTo(6);
+	}
+}
@@ -0,0 +1,53 @@
+package com.n33miaz.stats.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardDeadlinesTest {
+
+	private final CardDeadlines deadlines = new CardDeadlines(
+			new MockEnvironment().withProperty("cards.deadline.graph-ms", "1500"),
+			new SimpleMeterRegistry(), 3000, 5000);
+
+	@Test
+	void requestedDeadlineIsCapped() {
+		assertThat(deadlines.resolve(CardType.STATS, null)).isEqualTo(Duration.ofMillis(3000));
+		assertThat(deadlines.resolve(CardType.GRAPH, null)).isEqualTo(Duration.ofMillis(1500));
+		assertThat(deadlines.resolve(CardType.STATS, 800L)).isEqualTo(Duration.ofMillis(800));
+		assertThat(deadlines.resolve(CardType.STATS, 60_000L)).isEqualTo(Duration.ofMillis(5000));
+	}
+
+	@Test
+	void lateResultIsOmittedButStillDelivered() throws InterruptedException {
+		CountDownLatch arrived = new CountDownLatch(1);
+		Mono<String> slow = Mono.just("2 hrs").delayElement(Duration.ofMillis(200))
+				.doOnNext(value -> arrived.countDown());
+
+		Optional<String> result = deadlines.optional(slow, Duration.ofMillis(20)).block();
+
+		assertThat(result).isEmpty();
+		// o prazo do card não cancela a chamada: o valor ainda chega (e alimentaria o cache de dados)
+		assertThat(arrived.await(2, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void failedOrEmptySourceIsOmitted() {
+		assertThat(deadlines.optional(Mono.<String>empty(), Duration.ofSeconds(1)).block()).isEmpty();
+		assertThat(deadlines.optional(Mono.<String>error(new IllegalStateException("503")), Duration.ofSeconds(1))
+				.block()).isEmpty();
+	}
+
+	@Test
+	void timelyResultIsKept() {
+		assertThat(deadlines.optional(Mono.just("2 hrs"), Duration.ofSeconds(1)).block()).contains("2 hrs");
+	}
+}
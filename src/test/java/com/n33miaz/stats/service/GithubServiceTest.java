@@ -0,0 +1,190 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.config.UpstreamClientFactory;
+import com.n33miaz.stats.config.UpstreamProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GithubServiceTest {
+
+	@Test
+	void revalidatesTotalCommitsWithEtag() throws Exception {
+		byte[] body = "{\"total_count\": 1234}".getBytes(StandardCharsets.UTF_8);
+		List<String> validators = new ArrayList<>();
+		AtomicInteger calls = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/search/commits", exchange -> {
+			String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+			validators.add(String.valueOf(ifNoneMatch));
+			if (calls.incrementAndGet() == 3) {
+				exchange.getResponseHeaders().add("X-RateLimit-Remaining", "0");
+				exchange.sendResponseHeaders(403, -1);
+			} else if ("\"v1\"".equals(ifNoneMatch)) {
+				exchange.sendResponseHeaders(304, -1);
+			} else {
+				exchange.getResponseHeaders().add("ETag", "\"v1\"");
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, body.length);
+				exchange.getResponseBody().write(body);
+			}
+			exchange.close();
+		});
+		server.start();
+
+		UpstreamClientFactory factory = null;
+		try {
+			UpstreamProperties properties = new UpstreamProperties();
+			properties.client("github-rest").setBaseUrl("http://localhost:" + server.getAddress().getPort());
+			factory = new UpstreamClientFactory(properties);
+
+			GithubService service = new GithubService(factory, new GithubTokenPool("", "t"), 60, 100);
+			ReflectionTestUtils.setField(service, "coalescer", passThrough());
+			ReflectionTestUtils.setField(service, "upstreamMetrics", new UpstreamMetrics(new SimpleMeterRegistry()));
+			ReflectionTestUtils.setField(service, "upstreamGuard", new UpstreamGuard(properties));
+
+			assertThat(totalCommits(service)).isEqualTo(1234);
+			// 304: contagem guardada
+			assertThat(totalCommits(service)).isEqualTo(1234);
+			// limite esgotado: última contagem conhecida em vez de 0
+			assertThat(totalCommits(service)).isEqualTo(1234);
+			assertThat(validators).containsExactly("null", "\"v1\"", "\"v1\"");
+		} finally {
+			server.stop(0);
+			if (factory != null) {
+				factory.dispose();
+			}
+		}
+	}
+
+	@Test
+	void rateLimitedGraphQlIsNotNegativeCached() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/graphql", exchange -> {
+			// limite do GraphQL: HTTP 200, data nulo e errors[]; depois, repositório inexistente
+			String type = calls.incrementAndGet() <= 2 ? "RATE_LIMITED" : "NOT_FOUND";
+			byte[] body = ("{\"data\": null, \"errors\": [{\"type\": \"" + type + "\", \"message\": \"x\"}]}")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+
+		UpstreamClientFactory factory = null;
+		try {
+			UpstreamProperties properties = new UpstreamProperties();
+			properties.client("github-graphql").setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/graphql");
+			factory = new UpstreamClientFactory(properties);
+
+			GithubService service = new GithubService(factory, new GithubTokenPool("", "t"), 60, 100);
+			GithubGraphQlClient graphQl = new GithubGraphQlClient();
+			ReflectionTestUtils.setField(graphQl, "webClient", factory.builder("github-graphql").build());
+			ReflectionTestUtils.setField(graphQl, "coalescer", passThrough());
+			ReflectionTestUtils.setField(graphQl, "upstreamMetrics", new UpstreamMetrics(new SimpleMeterRegistry()));
+			ReflectionTestUtils.setField(graphQl, "upstreamGuard", new UpstreamGuard(properties));
+			ReflectionTestUtils.setField(service, "graphQl", graphQl);
+			CardCacheService cache = new CardCacheService(new MockEnvironment(), 1 << 20, 100, 3600, 600, 60);
+
+			for (int i = 0; i < 2; i++) {
+				assertThatThrownBy(() -> cache.getData(CardType.PIN, "n33miaz|repo",
+						() -> service.fetchRepository("n33miaz", "repo")).block())
+						.isInstanceOf(GithubService.GraphQlException.class);
+			}
+			// NOT_FOUND sim vai para o cache negativo
+			for (int i = 0; i < 2; i++) {
+				assertThatThrownBy(() -> cache.getData(CardType.PIN, "n33miaz|repo",
+						() -> service.fetchRepository("n33miaz", "repo")).block())
+						.isInstanceOf(GithubService.NotFoundException.class);
+			}
+			assertThat(calls).hasValue(3);
+		} finally {
+			server.stop(0);
+			if (factory != null) {
+				factory.dispose();
+			}
+		}
+	}
+
+	@Test
+	void rateLimitedCalendarIsNotPinned() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/graphql", exchange -> {
+			// primeiro o limite do GraphQL (HTTP 200 com errors[]), depois o calendário
+			String json = calls.incrementAndGet() == 1
+					? "{\"data\": null, \"errors\": [{\"type\": \"RATE_LIMITED\", \"message\": \"x\"}]}"
+					: "{\"data\": {\"user\": {\"contributionsCollection\": {\"contributionCalendar\": {\"weeks\": ["
+							+ "{\"contributionDays\": [{\"date\": \"" + LocalDate.now() + "\", \"contributionCount\": 3}]}"
+							+ "]}}}}}";
+			byte[] body = json.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+
+		UpstreamClientFactory factory = null;
+		try {
+			UpstreamProperties properties = new UpstreamProperties();
+			properties.client("github-graphql").setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/graphql");
+			factory = new UpstreamClientFactory(properties);
+
+			GithubGraphQlClient graphQl = new GithubGraphQlClient();
+			ReflectionTestUtils.setField(graphQl, "webClient", factory.builder("github-graphql").build());
+			ReflectionTestUtils.setField(graphQl, "coalescer", passThrough());
+			ReflectionTestUtils.setField(graphQl, "upstreamMetrics", new UpstreamMetrics(new SimpleMeterRegistry()));
+			ReflectionTestUtils.setField(graphQl, "upstreamGuard", new UpstreamGuard(properties));
+			ContributionSnapshotService contributions = new ContributionSnapshotService(3600, 100);
+			ReflectionTestUtils.setField(contributions, "graphQl", graphQl);
+			GithubService service = new GithubService(factory, new GithubTokenPool("", "t"), 60, 100);
+			ReflectionTestUtils.setField(service, "contributionSnapshotService", contributions);
+			CardCacheService cache = new CardCacheService(new MockEnvironment(), 1 << 20, 100, 3600, 600, 60);
+
+			// erro transitório não vira "No Activity" guardado por uma hora
+			assertThatThrownBy(() -> cache.getData(CardType.STREAK, "n33miaz|github",
+					() -> service.fetchStreakStats("n33miaz")).block())
+					.isInstanceOf(GithubService.GraphQlException.class);
+			assertThat(cache.getData(CardType.STREAK, "n33miaz|github",
+					() -> service.fetchStreakStats("n33miaz")).block().currentStreak()).isEqualTo(1);
+			assertThat(calls).hasValue(2);
+		} finally {
+			server.stop(0);
+			if (factory != null) {
+				factory.dispose();
+			}
+		}
+	}
+
+	// chamadas em sequência: cada uma precisa chegar ao servidor
+	private static RequestCoalescer passThrough() {
+		return new RequestCoalescer() {
+			@Override
+			public <T> Mono<T> coalesce(String upstream, String query, Object variables, Supplier<Mono<T>> call) {
+				return Mono.defer(call);
+			}
+		};
+	}
+
+	private static Integer totalCommits(GithubService service) {
+		return ReflectionTestUtils.<Mono<Integer>>invokeMethod(
+				service, "fetchTotalCommits", "n33miaz").block();
+	}
+}
@@ -0,0 +1,118 @@
+package com.n33miaz.stats.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GithubTokenPoolTest {
+
+	private static final ClientRequest SEARCH = ClientRequest
+			.create(HttpMethod.GET, URI.create("https://api.github.com/search/commits?q=author:n33miaz"))
+			.build();
+
+	@Test
+	void routesToTokenWithMostRemainingBudget() {
+		GithubTokenPool pool = new GithubTokenPool("a, b", "");
+		Map<String, Integer> remaining = Map.of("a", 3, "b", 20);
+		List<String> used = new ArrayList<>();
+		ExchangeFunction github = request -> {
+			String token = bearer(request);
+			used.add(token);
+			return Mono.just(response(HttpStatus.OK, remaining.get(token), null));
+		};
+
+		pool.filter(SEARCH, github).block();
+		pool.filter(SEARCH, github).block();
+		pool.filter(SEARCH, github).block();
+
+		// primeira chamada descobre "a" com 3, a segunda descobre "b" com 20; daí em diante só "b"
+		assertThat(used).containsExactly("a", "b", "b");
+	}
+
+	@Test
+	void quarantinesExhaustedTokenAndRetriesWithNext() {
+		GithubTokenPool pool = new GithubTokenPool("", "a,b");
+		List<String> used = new ArrayList<>();
+		long reset = Instant.now().plusSeconds(60).getEpochSecond();
+		ExchangeFunction github = request -> {
+			String token = bearer(request);
+			used.add(token);
+			return Mono.just(response(HttpStatus.FORBIDDEN, 0, reset));
+		};
+
+		assertThat(pool.filter(SEARCH, github).block().statusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(used).containsExactly("a", "b");
+
+		// os dois em quarentena: falha sem chamar o GitHub
+		assertThatThrownBy(() -> pool.filter(SEARCH, github).block())
+				.isInstanceOf(GithubTokenPool.RateLimitedException.class);
+		assertThat(used).hasSize(2);
+	}
+
+	@Test
+	void limitedCallIsRetriedOnce() {
+		GithubTokenPool pool = new GithubTokenPool("a,b,c", "");
+		List<String> used = new ArrayList<>();
+		long reset = Instant.now().plusSeconds(60).getEpochSecond();
+		ExchangeFunction github = request -> {
+			used.add(bearer(request));
+			return Mono.just(response(HttpStatus.FORBIDDEN, 0, reset));
+		};
+
+		assertThat(pool.filter(SEARCH, github).block().statusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(used).containsExactly("a", "b");
+	}
+
+	@Test
+	void graphQlBudgetExhaustedOnSuccessQuarantinesToken() {
+		GithubTokenPool pool = new GithubTokenPool("a,b", "");
+		ClientRequest graphQl = ClientRequest.create(HttpMethod.POST, URI.create("https://api.github.com/graphql"))
+				.build();
+		long reset = Instant.now().plusSeconds(60).getEpochSecond();
+		List<String> used = new ArrayList<>();
+		ExchangeFunction github = request -> {
+			used.add(bearer(request));
+			// RATE_LIMITED do GraphQL: HTTP 200, erro no corpo, orçamento zerado nos cabeçalhos
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header("X-RateLimit-Resource", "graphql")
+					.header("X-RateLimit-Remaining", "0")
+					.header("X-RateLimit-Reset", String.valueOf(reset))
+					.build());
+		};
+
+		pool.filter(graphQl, github).block();
+		pool.filter(graphQl, github).block();
+
+		assertThat(used).containsExactly("a", "b");
+		assertThatThrownBy(() -> pool.filter(graphQl, github).block())
+				.isInstanceOf(GithubTokenPool.RateLimitedException.class);
+	}
+
+	private static String bearer(ClientRequest request) {
+		return request.headers().getFirst(HttpHeaders.AUTHORIZATION).substring("Bearer ".length());
+	}
+
+	private static ClientResponse response(HttpStatus status, int remaining, Long reset) {
+		ClientResponse.Builder builder = ClientResponse.create(status)
+				.header("X-RateLimit-Resource", "search")
+				.header("X-RateLimit-Remaining", String.valueOf(remaining));
+		if (reset != null) {
+			builder.header("X-RateLimit-Reset", String.valueOf(reset));
+		}
+		return builder.build();
+	}
+}
@@ -0,0 +1,193 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.config.UpstreamClientFactory;
+import com.n33miaz.stats.config.UpstreamProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import javax.imageio.ImageIO;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageServiceTest {
+
+	private final ImageService imageService = new ImageService(new UpstreamClientFactory(new UpstreamProperties()),
+			new UpstreamGuard(new UpstreamProperties()), Schedulers.boundedElastic(), 2, 0.8f, 1 << 20, 60, 60, "", 60, 1 << 20);
+
+	@Test
+	void downscalesExtraLargeCoverToRenderedSize() throws Exception {
+		byte[] cover = jpeg(300, 300);
+
+		String dataUri = imageService.toDataUri(cover, 64);
+
+		assertThat(dataUri).startsWith("data:image/jpeg;base64,");
+		BufferedImage thumbnail = decode(dataUri);
+		assertThat(thumbnail.getWidth()).isEqualTo(64);
+		assertThat(thumbnail.getHeight()).isEqualTo(64);
+		assertThat(dataUri.length()).isLessThan(Base64.getEncoder().encodeToString(cover).length() / 5);
+	}
+
+	@Test
+	void keepsAspectRatio() throws Exception {
+		BufferedImage thumbnail = decode(imageService.toDataUri(jpeg(300, 150), 64));
+
+		assertThat(thumbnail.getWidth()).isEqualTo(64);
+		assertThat(thumbnail.getHeight()).isEqualTo(32);
+	}
+
+	@Test
+	void keepsSmallAndUnreadableImagesAsTheyCame() throws Exception {
+		byte[] small = jpeg(40, 40);
+		byte[] webp = { 'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P' };
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB), "png", png);
+
+		assertThat(imageService.toDataUri(small, 64))
+				.isEqualTo("data:image/jpeg;base64," + Base64.getEncoder().encodeToString(small));
+		// originais mantêm o próprio tipo
+		assertThat(imageService.toDataUri(webp, 64))
+				.isEqualTo("data:image/webp;base64," + Base64.getEncoder().encodeToString(webp));
+		assertThat(imageService.toDataUri(png.toByteArray(), 64))
+				.isEqualTo("data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray()));
+		assertThat(imageService.toDataUri(new byte[0], 64)).isEmpty();
+	}
+
+	@Test
+	void sharesThumbnailsAcrossCallsAndRestartsThroughDisk(@TempDir Path dir) throws Exception {
+		byte[] cover = jpeg(300, 300);
+		AtomicInteger downloads = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/cover.jpg", exchange -> {
+			downloads.incrementAndGet();
+			exchange.sendResponseHeaders(200, cover.length);
+			exchange.getResponseBody().write(cover);
+			exchange.close();
+		});
+		server.createContext("/missing.jpg", exchange -> {
+			downloads.incrementAndGet();
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+		});
+		server.start();
+		try {
+			String base = "http://localhost:" + server.getAddress().getPort();
+
+			ImageService first = withDisk(dir);
+			String dataUri = first.thumbnail(base + "/cover.jpg", 32).block();
+			assertThat(first.thumbnail(base + "/cover.jpg", 32).block()).isEqualTo(dataUri);
+			assertThat(downloads).hasValue(1);
+			assertThat(Files.list(dir)).hasSize(1);
+
+			// nova instância (restart) lê do disco
+			assertThat(withDisk(dir).thumbnail(base + "/cover.jpg", 32).block()).isEqualTo(dataUri);
+			assertThat(downloads).hasValue(1);
+
+			// falha fica em cache negativo
+			assertThat(first.thumbnail(base + "/missing.jpg", 32).block()).isEmpty();
+			assertThat(first.thumbnail(base + "/missing.jpg", 32).block()).isEmpty();
+			assertThat(downloads).hasValue(2);
+
+			// placeholder nem chega a ser baixado
+			assertThat(first.thumbnail(base + "/" + ImageService.PLACEHOLDER_HASH + ".png", 32).block()).isEmpty();
+			assertThat(downloads).hasValue(2);
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void unavailableUpstreamIsNotNegativeCached() throws Exception {
+		byte[] cover = jpeg(300, 300);
+		AtomicInteger downloads = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/cover.jpg", exchange -> {
+			downloads.incrementAndGet();
+			exchange.sendResponseHeaders(200, cover.length);
+			exchange.getResponseBody().write(cover);
+			exchange.close();
+		});
+		AtomicInteger flakyCalls = new AtomicInteger();
+		server.createContext("/flaky.jpg", exchange -> {
+			if (flakyCalls.incrementAndGet() == 1) {
+				exchange.sendResponseHeaders(503, -1);
+			} else {
+				exchange.sendResponseHeaders(200, cover.length);
+				exchange.getResponseBody().write(cover);
+			}
+			exchange.close();
+		});
+		server.start();
+		try {
+			String base = "http://localhost:" + server.getAddress().getPort();
+			UpstreamProperties properties = new UpstreamProperties();
+			properties.client("images").setMaxConcurrentCalls(1);
+			UpstreamGuard guard = new UpstreamGuard(properties);
+			ImageService service = new ImageService(new UpstreamClientFactory(properties), guard,
+					Schedulers.boundedElastic(), 2, 0.8f, 1 << 20, 60, 60, "", 60, 1 << 20);
+			ReflectionTestUtils.setField(service, "upstreamMetrics", new UpstreamMetrics(new SimpleMeterRegistry()));
+
+			// bulkhead cheio: vazio, sem chamar o upstream e sem cache negativo
+			Sinks.One<byte[]> busy = Sinks.one();
+			guard.protect("images", busy.asMono()).subscribe();
+			assertThat(service.thumbnail(base + "/cover.jpg", 32).block()).isEmpty();
+			assertThat(downloads).hasValue(0);
+			busy.tryEmitValue(new byte[0]);
+			assertThat(service.thumbnail(base + "/cover.jpg", 32).block()).startsWith("data:image/jpeg;base64,");
+			assertThat(downloads).hasValue(1);
+
+			// 5xx também não vai para o cache negativo
+			ImageService other = withDisk(null);
+			assertThat(other.thumbnail(base + "/flaky.jpg", 32).block()).isEmpty();
+			assertThat(other.thumbnail(base + "/flaky.jpg", 32).block()).startsWith("data:image/jpeg;base64,");
+			assertThat(flakyCalls).hasValue(2);
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	// dir nulo: só memória
+	private static ImageService withDisk(Path dir) {
+		ImageService service = new ImageService(new UpstreamClientFactory(new UpstreamProperties()),
+				new UpstreamGuard(new UpstreamProperties()), Schedulers.boundedElastic(), 2, 0.8f, 1 << 20, 60, 60,
+				dir != null ? dir.toString() : "", 60, 1 << 20);
+		ReflectionTestUtils.setField(service, "upstreamMetrics", new UpstreamMetrics(new SimpleMeterRegistry()));
+		return service;
+	}
+
+	private static byte[] jpeg(int width, int height) throws Exception {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		Random random = new Random(11);
+		for (int i = 0; i < 200; i++) {
+			g.setColor(new Color(random.nextInt(0xFFFFFF)));
+			g.fillOval(random.nextInt(width), random.nextInt(height), 20, 20);
+		}
+		g.dispose();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpeg", out);
+		return out.toByteArray();
+	}
+
+	private static BufferedImage decode(String dataUri) throws Exception {
+		byte[] bytes = Base64.getDecoder().decode(dataUri.substring(dataUri.indexOf(',') + 1));
+		return ImageIO.read(new ByteArrayInputStream(bytes));
+	}
+}
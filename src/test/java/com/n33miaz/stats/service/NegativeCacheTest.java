@@ -0,0 +1,77 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.service.CardCacheService.CachedCard;
+import com.n33miaz.stats.service.CardCacheService.CardKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NegativeCacheTest {
+
+	private final CardCacheService cache = new CardCacheService(new MockEnvironment(), 1 << 20, 100, 3600, 600, 60);
+
+	@Test
+	void notFoundIsNotFetchedAgain() {
+		AtomicInteger calls = new AtomicInteger();
+		Mono<String> missingRepo = Mono.defer(() -> {
+			calls.incrementAndGet();
+			return Mono.error(new GithubService.NotFoundException("Repositório não encontrado"));
+		});
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> cache.getData(CardType.PIN, "n33miaz|tpyo", () -> missingRepo).block())
+					.hasMessage("Repositório não encontrado");
+		}
+
+		assertThat(calls).hasValue(1);
+		assertThat(cache.negativeHits(CardType.PIN)).isEqualTo(2);
+	}
+
+	@Test
+	void transientErrorsAreRetried() {
+		AtomicInteger calls = new AtomicInteger();
+		Mono<String> slow = Mono.defer(() -> {
+			calls.incrementAndGet();
+			return Mono.error(new TimeoutException());
+		});
+
+		for (int i = 0; i < 2; i++) {
+			cache.getData(CardType.STATS, "n33miaz|github", () -> slow).onErrorResume(e -> Mono.empty()).block();
+		}
+
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void errorTtlDependsOnKind() {
+		assertThat(cache.negativeTtl(new GithubService.NotFoundException("x"))).isEqualTo(Duration.ofSeconds(600));
+		assertThat(cache.negativeTtl(WebClientResponseException.create(
+				HttpStatus.UNPROCESSABLE_ENTITY.value(), "Unprocessable", null, null, null))).isEqualTo(Duration.ofSeconds(60));
+		assertThat(cache.negativeTtl(WebClientResponseException.create(
+				HttpStatus.FORBIDDEN.value(), "Forbidden", null, null, null))).isZero();
+		assertThat(cache.negativeTtl(new TimeoutException())).isZero();
+	}
+
+	@Test
+	void errorCardIsRenderedOnce() {
+		CardKey key = CardKey.of(CardType.PIN, "n33miaz", "tpyo", Map.of(), false, true);
+		AtomicInteger renders = new AtomicInteger();
+		Throwable error = new GithubService.NotFoundException("Repositório não encontrado");
+
+		CachedCard first = cache.getErrorCard(key, error, () -> "<svg>" + renders.incrementAndGet() + "</svg>");
+		CachedCard second = cache.getErrorCard(key, error, () -> "<svg>" + renders.incrementAndGet() + "</svg>");
+
+		assertThat(second).isSameAs(first);
+		assertThat(renders).hasValue(1);
+	}
+}
@@ -0,0 +1,102 @@
+package com.n33miaz.stats.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescerTest {
+
+	private final RequestCoalescer coalescer = new RequestCoalescer();
+
+	@Test
+	void concurrentIdenticalCallsShareOneSubscription() throws Exception {
+		Sinks.One<String> upstream = Sinks.one();
+		AtomicInteger subscriptions = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch joined = new CountDownLatch(32);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<CompletableFuture<String>> results = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				results.add(CompletableFuture.supplyAsync(() -> {
+					await(start);
+					return coalescer.coalesce("github-graphql", "query", Map.of("login", "n33miaz"),
+							() -> Mono.defer(() -> {
+								subscriptions.incrementAndGet();
+								return upstream.asMono();
+							})).doOnSubscribe(s -> joined.countDown()).toFuture();
+				}, executor).thenCompose(future -> future));
+			}
+			start.countDown();
+
+			// todas as chamadas entram no voo antes da resposta
+			assertThat(joined.await(2, TimeUnit.SECONDS)).isTrue();
+			upstream.tryEmitValue("stats");
+
+			for (CompletableFuture<String> result : results) {
+				assertThat(result.get(2, TimeUnit.SECONDS)).isEqualTo("stats");
+			}
+			assertThat(subscriptions).hasValue(1);
+			assertThat(coalescer.inFlightCount()).isZero();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void finishedFlightDoesNotEvictNewerFlight() {
+		Sinks.One<String> first = Sinks.one();
+		Sinks.One<String> second = Sinks.one();
+		AtomicInteger calls = new AtomicInteger();
+
+		List<String> received = new ArrayList<>();
+		coalescer.coalesce("wakatime", "summaries", "n33miaz", () -> {
+			calls.incrementAndGet();
+			return first.asMono();
+		}).subscribe(received::add);
+
+		// doFinally atrasado: o voo antigo já saiu do mapa e um novo entrou antes de ele terminar
+		Map<?, ?> inFlight = (Map<?, ?>) ReflectionTestUtils.getField(coalescer, "inFlight");
+		inFlight.clear();
+		coalescer.coalesce("wakatime", "summaries", "n33miaz", () -> {
+			calls.incrementAndGet();
+			return second.asMono();
+		}).subscribe(received::add);
+
+		first.tryEmitValue("old");
+
+		// o voo novo continua registrado: mais uma chamada idêntica se junta a ele
+		assertThat(coalescer.inFlightCount()).isOne();
+		coalescer.coalesce("wakatime", "summaries", "n33miaz", () -> {
+			calls.incrementAndGet();
+			return Mono.just("unexpected");
+		}).subscribe(received::add);
+		second.tryEmitValue("new");
+
+		assertThat(calls).hasValue(2);
+		assertThat(received).containsExactly("old", "new", "new");
+		assertThat(coalescer.inFlightCount()).isZero();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.service.CardCacheService.CachedCard;
+import com.n33miaz.stats.service.CardCacheService.CardKey;
+import com.n33miaz.stats.service.CardCacheService.Rendered;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaleWhileRevalidateTest {
+
+	private final CardCacheService cache = new CardCacheService(new MockEnvironment(), 1 << 20, 100, 86400, 600, 60);
+
+	private final CardKey key = CardKey.of(CardType.STATS, "n33miaz", "n33miaz", Map.of(), false, false);
+
+	@Test
+	void staleHitServesCachedCardAndRefreshesOnce() throws Exception {
+		CachedCard old = seed(Duration.ofSeconds(CardType.STATS.maxAge() + 60), Duration.ofMinutes(30));
+		Sinks.One<Rendered> refresh = Sinks.one();
+		AtomicInteger renders = new AtomicInteger();
+		Supplier<Mono<Rendered>> renderer = () -> {
+			renders.incrementAndGet();
+			return refresh.asMono();
+		};
+
+		CompletableFuture<?>[] requests = new CompletableFuture<?>[8];
+		for (int i = 0; i < requests.length; i++) {
+			requests[i] = CompletableFuture.runAsync(() ->
+					assertThat(cache.getCompositeCard(key, renderer).block()).isSameAs(old));
+		}
+		CompletableFuture.allOf(requests).get(2, TimeUnit.SECONDS);
+
+		assertThat(renders).hasValue(1);
+		assertThat(cache.staleHits(CardType.STATS)).isEqualTo(8);
+
+		refresh.tryEmitValue(Rendered.complete("<svg>new</svg>"));
+
+		CachedCard fresh = cache.getCompositeCard(key, renderer).block();
+		assertThat(new String(fresh.svg(), StandardCharsets.UTF_8)).isEqualTo("<svg>new</svg>");
+		assertThat(cache.hits(CardType.STATS)).isEqualTo(1);
+		assertThat(renders).hasValue(1);
+	}
+
+	@Test
+	void partialRefreshKeepsCachedCard() {
+		CachedCard old = seed(Duration.ofSeconds(CardType.STATS.maxAge() + 60), Duration.ofMinutes(30));
+		AtomicInteger renders = new AtomicInteger();
+		Supplier<Mono<Rendered>> renderer = () -> {
+			renders.incrementAndGet();
+			return Mono.just(new Rendered("<svg>sem wakatime</svg>", true));
+		};
+
+		assertThat(cache.getCompositeCard(key, renderer).block()).isSameAs(old);
+		assertThat(cache.getCompositeCard(key, renderer).block()).isSameAs(old);
+
+		// a versão parcial não substitui a completa; cada acesso vencido tenta de novo
+		assertThat(cache.cards().getIfPresent(key)).isSameAs(old);
+		assertThat(renders).hasValue(2);
+	}
+
+	@Test
+	void entryPastStaleWindowIsMiss() throws Exception {
+		seed(Duration.ofSeconds(CardType.STATS.maxAge() + 3600), Duration.ofMillis(1));
+		Thread.sleep(20);
+
+		CachedCard card = cache.getCompositeCard(key, () -> Mono.just(Rendered.complete("<svg>new</svg>"))).block();
+
+		assertThat(new String(card.svg(), StandardCharsets.UTF_8)).isEqualTo("<svg>new</svg>");
+		assertThat(cache.misses(CardType.STATS)).isEqualTo(1);
+		assertThat(cache.staleHits(CardType.STATS)).isZero();
+	}
+
+	// card renderizado há "age", ainda por "remaining" no cache (TTL + janela de stale)
+	private CachedCard seed(Duration age, Duration remaining) {
+		byte[] svg = "<svg>old</svg>".getBytes(StandardCharsets.UTF_8);
+		CachedCard card = new CachedCard(svg, null, "\"old\"", Instant.now().minus(age), false);
+		cache.cards().policy().expireVariably().orElseThrow()
+				.put(key, card, remaining.toNanos(), TimeUnit.NANOSECONDS);
+		return card;
+	}
+}
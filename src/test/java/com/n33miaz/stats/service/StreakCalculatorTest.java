@@ -0,0 +1,171 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.dto.ContributionCalendar;
+import com.n33miaz.stats.dto.StreakStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreakCalculatorTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+	@Test
+	void emptyCalendarHasNoActivity() {
+		StreakStatsDto stats = StreakCalculator.calculate(ContributionCalendar.EMPTY, TODAY);
+
+		assertThat(stats).isEqualTo(new StreakStatsDto(0, 0, "No Activity", 0, "No Activity"));
+	}
+
+	@Test
+	void currentStreakSkipsTodayWithoutContributions() {
+		// ..., 7 (1), 8 (2), 9 (3), 10 (0)
+		int[] counts = { 0, 1, 2, 3, 0 };
+		ContributionCalendar calendar = new ContributionCalendar(TODAY.minusDays(4).toEpochDay(), counts);
+
+		StreakStatsDto stats = StreakCalculator.calculate(calendar, TODAY);
+
+		assertThat(stats).isEqualTo(new StreakStatsDto(6, 3, "Mar 07 - Mar 09", 3, "Mar 07 - Mar 09"));
+	}
+
+	@Test
+	void yearTotalIgnoresPreviousYear() {
+		LocalDate start = LocalDate.of(2024, 12, 30);
+		int[] counts = new int[(int) (TODAY.toEpochDay() - start.toEpochDay() + 1)];
+		counts[0] = 5;
+		counts[1] = 7;
+		counts[2] = 11;
+		ContributionCalendar calendar = new ContributionCalendar(start.toEpochDay(), counts);
+
+		StreakStatsDto stats = StreakCalculator.calculate(calendar, TODAY);
+
+		assertThat(stats).isEqualTo(new StreakStatsDto(11, 0, "No Activity", 3, "Dec 30 - Jan 01"));
+	}
+
+	@Test
+	void matchesLegacyListImplementationOnRandomCalendars() {
+		Random random = new Random(42);
+
+		for (int run = 0; run < 500; run++) {
+			int days = 1 + random.nextInt(400);
+			int activity = random.nextInt(10);
+			LocalDate end = TODAY.plusDays(random.nextInt(4) - 2);
+			LocalDate start = end.minusDays(days - 1);
+
+			List<ContributionDay> contributionDays = new ArrayList<>();
+			long[] epochDays = new long[days];
+			int[] counts = new int[days];
+			for (int i = 0; i < days; i++) {
+				int count = random.nextInt(10) < activity ? random.nextInt(15) + 1 : 0;
+				contributionDays.add(new ContributionDay(start.plusDays(i).toString(), count));
+				epochDays[i] = start.plusDays(i).toEpochDay();
+				counts[i] = count;
+			}
+
+			assertThat(StreakCalculator.calculate(ContributionCalendar.of(epochDays, counts, days), TODAY))
+					.as("run %d", run)
+					.isEqualTo(legacyCalculate(contributionDays, TODAY));
+		}
+	}
+
+	@Test
+	void parsesIsoDatesLikeLocalDate() {
+		LocalDate date = LocalDate.of(1999, 1, 1);
+		for (int i = 0; i < 20_000; i++) {
+			assertThat(ContributionCalendar.parseEpochDay(date.toString())).isEqualTo(date.toEpochDay());
+			date = date.plusDays(1);
+		}
+	}
+
+	private record ContributionDay(String date, int contributionCount) {
+	}
+
+	// implementação anterior (lista de dias + LocalDate.parse), usada como referência
+	private static StreakStatsDto legacyCalculate(List<ContributionDay> days, LocalDate today) {
+		List<ContributionDay> allDays = new ArrayList<>(days);
+		allDays.sort(Comparator.comparing(ContributionDay::date));
+
+		int currentYear = today.getYear();
+		DateTimeFormatter rangeFmt = DateTimeFormatter.ofPattern("MMM dd", Locale.US);
+
+		int totalCommitsYear = allDays.stream()
+				.filter(d -> LocalDate.parse(d.date()).getYear() == currentYear)
+				.mapToInt(ContributionDay::contributionCount)
+				.sum();
+
+		int currentStreak = 0;
+		int longestStreak = 0;
+		int tempStreak = 0;
+		LocalDate currentStreakStart = null;
+		LocalDate currentStreakEnd = null;
+		LocalDate longestStreakStart = null;
+		LocalDate longestStreakEnd = null;
+		LocalDate tempStart = null;
+
+		for (ContributionDay day : allDays) {
+			if (day.contributionCount() > 0) {
+				if (tempStreak == 0) {
+					tempStart = LocalDate.parse(day.date());
+				}
+				tempStreak++;
+				if (tempStreak > longestStreak) {
+					longestStreak = tempStreak;
+					longestStreakStart = tempStart;
+					longestStreakEnd = LocalDate.parse(day.date());
+				}
+			} else {
+				tempStreak = 0;
+				tempStart = null;
+			}
+		}
+
+		boolean streakActive = false;
+		int size = allDays.size();
+		if (size > 0) {
+			var lastDay = allDays.get(size - 1);
+			LocalDate lastDate = LocalDate.parse(lastDay.date());
+			if ((lastDate.isEqual(today) || lastDate.isEqual(today.minusDays(1))) && lastDay.contributionCount() > 0) {
+				streakActive = true;
+			} else if (size > 1) {
+				var yesterday = allDays.get(size - 2);
+				if (LocalDate.parse(yesterday.date()).isEqual(today.minusDays(1)) && yesterday.contributionCount() > 0) {
+					streakActive = true;
+				}
+			}
+		}
+
+		if (streakActive) {
+			for (int i = size - 1; i >= 0; i--) {
+				var day = allDays.get(i);
+				if (day.contributionCount() > 0) {
+					currentStreak++;
+					currentStreakStart = LocalDate.parse(day.date());
+					if (currentStreakEnd == null)
+						currentStreakEnd = LocalDate.parse(day.date());
+				} else if (!LocalDate.parse(day.date()).isEqual(today)) {
+					break;
+				}
+			}
+		}
+
+		return new StreakStatsDto(totalCommitsYear, currentStreak,
+				legacyRange(currentStreakStart, currentStreakEnd, rangeFmt), longestStreak,
+				legacyRange(longestStreakStart, longestStreakEnd, rangeFmt));
+	}
+
+	private static String legacyRange(LocalDate start, LocalDate end, DateTimeFormatter fmt) {
+		if (start == null || end == null)
+			return "No Activity";
+		if (start.isEqual(end))
+			return start.format(fmt);
+		return start.format(fmt) + " - " + end.format(fmt);
+	}
+}
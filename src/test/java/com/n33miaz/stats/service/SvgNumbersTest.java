@@ -0,0 +1,53 @@
+package com.n33miaz.stats.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SvgNumbersTest {
+
+	@Test
+	void matchesStringFormatOnEdgeCases() {
+		double[] values = { 0.0, -0.0, -0.001, 0.005, 0.125, 1.005, 2.675, 0.045, 1.5, 2.5, -2.5, 99.995,
+				123456.785, 1e9, 1e12 + 0.5, 4.35, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN,
+				Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+
+		for (double value : values) {
+			for (int precision = 0; precision <= 6; precision++) {
+				assertThat(SvgNumbers.fixed(value, precision))
+						.as("%s com %d casas", value, precision)
+						.isEqualTo(String.format(Locale.US, "%." + precision + "f", value));
+			}
+		}
+	}
+
+	@Test
+	void matchesStringFormatOnChartCoordinates() {
+		Random random = new Random(9);
+
+		for (int i = 0; i < 200_000; i++) {
+			// coordenadas reais (frações de stepX) e valores com muitas casas
+			double value = random.nextBoolean()
+					? 60 + (random.nextInt(400) * (680.0 / (1 + random.nextInt(400))))
+					: (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(8));
+			int precision = random.nextInt(7);
+
+			assertThat(SvgNumbers.fixed(value, precision))
+					.as("%s com %d casas", value, precision)
+					.isEqualTo(String.format(Locale.US, "%." + precision + "f", value));
+		}
+	}
+
+	@Test
+	void padsLikeZeroFlag() {
+		for (long value : new long[] { 0, 5, 9, 10, 59, 123, -5, -123 }) {
+			assertThat(SvgNumbers.appendPadded(new StringBuilder(), value, 2).toString())
+					.isEqualTo(String.format("%02d", value));
+			assertThat(SvgNumbers.appendPadded(new StringBuilder(), value, 4).toString())
+					.isEqualTo(String.format("%04d", value));
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.n33miaz.stats.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SvgTemplateTest {
+
+	@Test
+	void rendersLikeStringFormat() {
+		SvgTemplate template = SvgTemplate.compile("<g x=\"%d\">%s 100%% %f %.2f</g>%s");
+
+		String rendered = template.writer()
+				.num(-12)
+				.str("a%sb")
+				.dec(0.5)
+				.dec(2.345)
+				.str(new StringBuilder("tail"))
+				.render();
+
+		assertThat(rendered).isEqualTo(
+				String.format(Locale.US, template.source(), -12, "a%sb", 0.5, 2.345, "tail"));
+	}
+
+	@Test
+	void cardTemplatesMatchStringFormatOnRandomValues() throws Exception {
+		Random random = new Random(8);
+		List<SvgTemplate> templates = cardTemplates();
+		assertThat(templates).isNotEmpty();
+
+		for (SvgTemplate template : templates) {
+			for (int run = 0; run < 50; run++) {
+				SvgTemplate.Writer writer = template.writer();
+				Object[] args = new Object[template.slotCount()];
+				for (int slot = 0; slot < args.length; slot++) {
+					switch (template.kind(slot)) {
+						case STRING -> {
+							String value = Integer.toHexString(random.nextInt()) + "%n";
+							writer.str(value);
+							args[slot] = value;
+						}
+						case INT -> {
+							int value = random.nextInt(4000) - 1000;
+							writer.num(value);
+							args[slot] = value;
+						}
+						case DECIMAL -> {
+							double value = (random.nextDouble() - 0.2) * 500;
+							writer.dec(value);
+							args[slot] = value;
+						}
+					}
+				}
+
+				assertThat(writer.render()).isEqualTo(String.format(Locale.US, template.source(), args));
+			}
+		}
+	}
+
+	@Test
+	void rejectsUnsupportedConversions() {
+		assertThatThrownBy(() -> SvgTemplate.compile("%06x")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> SvgTemplate.compile("%.2d")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> SvgTemplate.compile("100%")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsWrongOrMissingValues() {
+		SvgTemplate template = SvgTemplate.compile("%d-%s");
+
+		assertThatThrownBy(() -> template.writer().str("x")).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> template.writer().num(1).render()).isInstanceOf(IllegalStateException.class);
+	}
+
+	private static List<SvgTemplate> cardTemplates() throws IllegalAccessException {
+		List<SvgTemplate> templates = new ArrayList<>();
+		for (Field field : SvgService.class.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers()) && field.getType() == SvgTemplate.class) {
+				field.setAccessible(true);
+				templates.add((SvgTemplate) field.get(null));
+			}
+		}
+		return templates;
+	}
+}
@@ -0,0 +1,91 @@
+package com.n33miaz.stats.service;
+
+import com.n33miaz.stats.config.UpstreamProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+	private static UpstreamGuard guard(Duration openDuration) {
+		UpstreamProperties properties = new UpstreamProperties();
+		UpstreamProperties.Client client = properties.client("test");
+		client.setSlidingWindowSize(4);
+		client.setMinimumCalls(4);
+		client.setHalfOpenCalls(1);
+		client.setMaxConcurrentCalls(2);
+		client.setOpenDuration(openDuration);
+		return new UpstreamGuard(properties);
+	}
+
+	@Test
+	void opensOnServerErrorsAndShortCircuits() {
+		UpstreamGuard guard = guard(Duration.ofMinutes(1));
+		AtomicInteger calls = new AtomicInteger();
+		Mono<String> failing = Mono.defer(() -> {
+			calls.incrementAndGet();
+			return Mono.error(WebClientResponseException.create(503, "Unavailable", null, null, null));
+		});
+
+		for (int i = 0; i < 4; i++) {
+			guard.protect("test", failing).onErrorResume(e -> Mono.empty()).block();
+		}
+
+		assertThat(guard.state("test")).isEqualTo(UpstreamGuard.CircuitState.OPEN);
+		assertThatThrownBy(() -> guard.protect("test", failing).block())
+				.isInstanceOf(UpstreamGuard.UnavailableException.class);
+		assertThat(calls).hasValue(4);
+	}
+
+	@Test
+	void clientErrorsDoNotOpen() {
+		UpstreamGuard guard = guard(Duration.ofMinutes(1));
+		Mono<String> notFound = Mono.error(WebClientResponseException.create(
+				HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null));
+
+		for (int i = 0; i < 8; i++) {
+			guard.protect("test", notFound).onErrorResume(e -> Mono.empty()).block();
+		}
+
+		assertThat(guard.state("test")).isEqualTo(UpstreamGuard.CircuitState.CLOSED);
+	}
+
+	@Test
+	void halfOpenProbeClosesAgain() throws InterruptedException {
+		UpstreamGuard guard = guard(Duration.ofMillis(50));
+		for (int i = 0; i < 4; i++) {
+			guard.protect("test", Mono.error(new IllegalStateException())).onErrorResume(e -> Mono.empty()).block();
+		}
+		assertThat(guard.state("test")).isEqualTo(UpstreamGuard.CircuitState.OPEN);
+
+		Thread.sleep(80);
+
+		assertThat(guard.protect("test", Mono.just("ok")).block()).isEqualTo("ok");
+		assertThat(guard.state("test")).isEqualTo(UpstreamGuard.CircuitState.CLOSED);
+	}
+
+	@Test
+	void bulkheadRejectsBeyondLimit() {
+		UpstreamGuard guard = guard(Duration.ofMinutes(1));
+		Sinks.One<String> first = Sinks.one();
+		Sinks.One<String> second = Sinks.one();
+
+		guard.protect("test", first.asMono()).subscribe();
+		guard.protect("test", second.asMono()).subscribe();
+
+		assertThatThrownBy(() -> guard.protect("test", Mono.just("x")).block())
+				.isInstanceOf(UpstreamGuard.UnavailableException.class)
+				.hasMessageContaining("bulkhead");
+
+		first.tryEmitValue("done");
+		assertThat(guard.protect("test", Mono.just("x")).block()).isEqualTo("x");
+	}
+}